@@ -0,0 +1,116 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.ImportStatus;
+import com.riksonpereira.banking.importer.AccountImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to import one million CSV accounts through {@link AccountImporter}.
+ * A batch size of 1 approximates one insert and commit per account, as
+ * with {@code POST /api/accounts}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AccountImportBenchmark {
+
+    private static final long ROWS = 1_000_000;
+
+    @Param({"1", "1000"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountImporter accountImporter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--banking.imports.batch-size=" + batchSize);
+        accountImporter = context.getBean(AccountImporter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ImportStatus importMillionAccounts() {
+        ImportStatus status = accountImporter.importStream(new GeneratedCsv(ROWS), AccountImporter.Format.CSV, "benchmark");
+        if (status.imported() != ROWS) {
+            throw new IllegalStateException("Import did not complete: " + status);
+        }
+        return status;
+    }
+
+    // CSV lines produced on demand, so the input is never held in memory
+    private static final class GeneratedCsv extends InputStream {
+
+        private final long rows;
+
+        private long row;
+
+        private byte[] line = new byte[0];
+
+        private int position;
+
+        GeneratedCsv(long rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return line[position++];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() {
+            if (position < line.length) {
+                return true;
+            }
+            if (row == rows) {
+                return false;
+            }
+            line = ("account-" + row + "," + (row % 10_000) + ".25\n").getBytes(StandardCharsets.US_ASCII);
+            position = 0;
+            row++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end deposit and transfer through {@link AccountService} against the
+ * embedded database, for each ledger engine. Sample mode reports latency
+ * percentiles alongside throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class AccountServiceBenchmark {
+
+    private static final int ACCOUNTS = 1_024;
+
+    @Param({"atomic", "in-memory", "sharded"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private Long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--banking.engine=" + engine);
+        accountService = context.getBean(AccountService.class);
+
+        accountIds = new Long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.createAccount(new AccountDto(null, "account-" + i, Money.ofUnits(1_000_000))).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDto deposit() {
+        Long accountId = accountIds[ThreadLocalRandom.current().nextInt(ACCOUNTS)];
+        return accountService.deposit(accountId, 1);
+    }
+
+    @Benchmark
+    public void transferFunds() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        accountService.transferFunds(new TransferFundDto(accountIds[from], accountIds[to], 1));
+    }
+}
@@ -0,0 +1,75 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.BankingAppApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the banking application against an in-memory H2 database, without
+ * the web layer, so benchmarks measure the service and persistence paths.
+ */
+public final class BenchmarkApplication {
+
+    private static final List<String> DEFAULTS = List.of(
+            "--spring.datasource.url=jdbc:h2:mem:banking;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.flyway.enabled=false",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--logging.level.root=WARN"
+    );
+
+    private BenchmarkApplication() {
+    }
+
+    // Overrides are passed as --key=value arguments so they win over application.properties
+    public static ConfigurableApplicationContext start(String... overrides) {
+        return builder()
+                .web(WebApplicationType.NONE)
+                .run(arguments(overrides));
+    }
+
+    // Same, with the servlet stack on a random port; the initializer can register extra beans
+    public static ConfigurableApplicationContext startWeb(ApplicationContextInitializer<GenericApplicationContext> initializer,
+                                                          String... overrides) {
+        return builder()
+                .web(WebApplicationType.SERVLET)
+                .initializers(initializer)
+                .run(arguments(overrides));
+    }
+
+    // The "reactive" profile on Netty, with R2DBC reading the same in-memory database as JDBC
+    public static ConfigurableApplicationContext startReactive(String... overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=reactive",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///banking?options=MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password="));
+        args.addAll(Arrays.asList(overrides));
+        return builder()
+                .web(WebApplicationType.REACTIVE)
+                .run(arguments(args.toArray(String[]::new)));
+    }
+
+    private static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(BankingAppApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false);
+    }
+
+    private static String[] arguments(String... overrides) {
+        List<String> args = new ArrayList<>(DEFAULTS);
+        args.add("--server.port=0");
+        args.addAll(Arrays.asList(overrides));
+        return args.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,113 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives random transfers between a few hot accounts through several running
+ * instances that share one database, then checks that no money was created
+ * or lost. Start the instances first, for example:
+ * <pre>
+ * java -jar target/banking-app-0.0.1-SNAPSHOT-exec.jar --server.port=8081 \
+ *     --banking.engine=locking --banking.locks.mode=database
+ * </pre>
+ * and run this class with the base URLs as arguments:
+ * {@code http://localhost:8081 http://localhost:8082 http://localhost:8083}.
+ */
+public final class ClusterConsistencyCheck {
+
+    private static final int ACCOUNTS = 8;
+
+    private static final int THREADS_PER_INSTANCE = 16;
+
+    private static final int TRANSFERS_PER_THREAD = 500;
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ClusterConsistencyCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Pass the base URL of every instance, e.g. http://localhost:8081");
+        }
+        List<Long> accounts = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            JsonNode created = send(args[0], "POST", "/api/accounts",
+                    "{\"accountHolderName\":\"cluster-" + i + "\",\"balance\":" + OPENING_BALANCE + "}");
+            accounts.add(created.get("id").asLong());
+        }
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(args.length * THREADS_PER_INSTANCE);
+        for (String baseUrl : args) {
+            for (int t = 0; t < THREADS_PER_INSTANCE; t++) {
+                executor.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        Long from = accounts.get(random.nextInt(ACCOUNTS));
+                        Long to = accounts.get(random.nextInt(ACCOUNTS));
+                        if (from.equals(to)) {
+                            continue;
+                        }
+                        String body = "{\"fromAccountId\":" + from + ",\"toAccountId\":" + to
+                                + ",\"amount\":" + random.nextInt(1, 50) + ".00}";
+                        try {
+                            send(baseUrl, "POST", "/api/accounts/transfer", body);
+                            succeeded.incrementAndGet();
+                        } catch (Exception e) {
+                            // Insufficient funds or a lease timeout; neither may move money
+                            rejected.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+
+        BigDecimal expected = OPENING_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS));
+        BigDecimal total = BigDecimal.ZERO;
+        for (Long id : accounts) {
+            total = total.add(send(args[0], "GET", "/api/accounts/" + id, null).get("balance").decimalValue());
+        }
+        System.out.printf("transfers=%d rejected=%d total=%s expected=%s%n",
+                succeeded.get(), rejected.get(), total, expected);
+        if (total.compareTo(expected) != 0) {
+            throw new IllegalStateException("Balances are not conserved across instances");
+        }
+    }
+
+    private static JsonNode send(String baseUrl, String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " -> " + response.statusCode() + " " + response.body());
+        }
+        String text = response.body();
+        return text.isEmpty() || !text.startsWith("{") ? null : MAPPER.readTree(text);
+    }
+}
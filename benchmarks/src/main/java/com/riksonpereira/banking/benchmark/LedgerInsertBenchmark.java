@@ -0,0 +1,67 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.ledger.LedgerBatchWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Time to insert one million ledger rows through {@link LedgerBatchWriter}.
+ * A JDBC batch size of 1 reproduces the row-by-row flushing Hibernate did
+ * while Transaction ids came from an IDENTITY column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class LedgerInsertBenchmark {
+
+    private static final long ROWS = 1_000_000;
+
+    @Param({"1", "100"})
+    public int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private LedgerBatchWriter ledgerBatchWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        ledgerBatchWriter = context.getBean(LedgerBatchWriter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void insertMillionRows() {
+        LocalDateTime now = LocalDateTime.now();
+        // Rows are generated lazily so the benchmark never holds them all in memory
+        Iterable<Transaction> rows = () -> LongStream.range(0, ROWS)
+                .mapToObj(i -> new Transaction(null, i % 1_000, 1, TransactionType.DEPOSIT, now))
+                .iterator();
+        ledgerBatchWriter.writeAll(rows);
+    }
+}
@@ -0,0 +1,72 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.lock.StripedLockTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking and releasing account locks: uncontended on random accounts,
+ * pairs for transfers, and eight threads fighting over one hot account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockTableBenchmark {
+
+    private static final long HOT_ACCOUNT_ID = 1L;
+
+    @Param({"1024"})
+    public int stripes;
+
+    private StripedLockTable lockTable;
+
+    @Setup
+    public void setUp() {
+        BankingProperties properties = new BankingProperties();
+        properties.getLocks().setStripes(stripes);
+        lockTable = new StripedLockTable(properties, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public void lockRandomAccount() {
+        Long accountId = ThreadLocalRandom.current().nextLong(1, 10_000_000);
+        lockTable.lock(accountId);
+        lockTable.unlock(accountId);
+    }
+
+    @Benchmark
+    public void lockRandomPair() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long first = random.nextLong(1, 10_000_000);
+        Long second = random.nextLong(1, 10_000_000);
+        lockTable.lockBoth(first, second);
+        lockTable.unlockBoth(first, second);
+    }
+
+    @Benchmark
+    @Group("hotAccount")
+    @GroupThreads(8)
+    public void lockHotAccount() {
+        lockTable.lock(HOT_ACCOUNT_ID);
+        lockTable.unlock(HOT_ACCOUNT_ID);
+    }
+}
@@ -0,0 +1,64 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.journal.LedgerJournal;
+import com.riksonpereira.banking.mapper.AccountMapper;
+import com.riksonpereira.banking.service.impl.AccountServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping on the read paths. Run with {@code -prof gc} to see
+ * the bytes allocated per mapped row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private Account account;
+
+    private Transaction transaction;
+
+    private AccountServiceImpl accountService;
+
+    @Setup
+    public void setUp() {
+        account = new Account(42L, "Account Holder", 1_234_56L, 0L);
+        transaction = new Transaction(7L, 42L, 10_00L, TransactionType.DEPOSIT, LocalDateTime.now());
+        // convertEntityToDto uses no collaborators
+        accountService = new AccountServiceImpl(null, null, null, null, null,
+                new StaticListableBeanFactory().getBeanProvider(LedgerJournal.class), null,
+                new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public AccountDto mapToAccountDto() {
+        return AccountMapper.mapToAccountDto(account);
+    }
+
+    @Benchmark
+    public TransactionDto convertEntityToDto() {
+        return accountService.convertEntityToDto(transaction);
+    }
+}
@@ -0,0 +1,113 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.AccountService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Side-by-side load test of the servlet stack ({@code AccountServiceImpl})
+ * and the reactive stack ({@code ReactiveAccountServiceImpl}) on a fan-in
+ * workload: thousands of clients on keep-alive connections, each checking a
+ * balance and then idling. Reports throughput, latency percentiles and the
+ * number of live server threads for each stack.
+ */
+public final class ReactiveLoadTest {
+
+    private static final int CLIENTS = 5_000;
+
+    private static final int ACCOUNTS = 1_000;
+
+    private static final Duration THINK_TIME = Duration.ofMillis(100);
+
+    private static final Duration RUN_TIME = Duration.ofSeconds(30);
+
+    private ReactiveLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb(ctx -> { })) {
+            run("servlet", context);
+        }
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startReactive()) {
+            run("reactive", context);
+        }
+    }
+
+    private static void run(String stack, ConfigurableApplicationContext context) throws Exception {
+        // Seed through the blocking service; both stacks read the same tables
+        AccountService accountService = context.getBean(AccountService.class);
+        long[] ids = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(null, "Load " + i, Money.ofUnits(100))).getId();
+        }
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + RUN_TIME.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.execute(() -> {
+                    List<Long> own = new ArrayList<>();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/api/accounts/" + ids[random.nextInt(ACCOUNTS)])).build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                own.add(System.nanoTime() - start);
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                            Thread.sleep(THINK_TIME);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    latencies.add(own.stream().mapToLong(Long::longValue).toArray());
+                });
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%s: requests/s=%.0f p50=%.2fms p99=%.2fms failed=%d peak platform threads=%d%n",
+                stack,
+                all.length / (double) RUN_TIME.toSeconds(),
+                percentile(all, 0.50) / 1e6,
+                percentile(all, 0.99) / 1e6,
+                failed.get(),
+                threads.getPeakThreadCount());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+}
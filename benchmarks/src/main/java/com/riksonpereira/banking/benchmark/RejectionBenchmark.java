@@ -0,0 +1,102 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.exception.AccountException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rejected requests. The first pair throws from the given call
+ * depth (a servlet request is a few hundred frames deep) with and without
+ * filling in a stack trace; the last rejects withdrawals end to end through
+ * {@link AccountService} on the in-memory engine, where no query is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RejectionBenchmark {
+
+    @Param({"200"})
+    public int depth;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--banking.engine=in-memory");
+        accountService = context.getBean(AccountService.class);
+        accountId = accountService.createAccount(new AccountDto(null, "empty", 0)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String stackTraceException() {
+        try {
+            throwFrom(depth, true);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String stacklessException() {
+        try {
+            throwFrom(depth, false);
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectedWithdrawal() {
+        try {
+            accountService.withdraw(accountId, Money.ofUnits(1));
+            return null;
+        } catch (AccountException e) {
+            return e.getMessage();
+        }
+    }
+
+    // A plain RuntimeException is what every rejection used to cost
+    private static void throwFrom(int depth, boolean stackTrace) {
+        if (depth > 0) {
+            throwFrom(depth - 1, stackTrace);
+            return;
+        }
+        throw stackTrace
+                ? new RuntimeException("Insufficient amount")
+                : InsufficientFundsException.INSUFFICIENT_AMOUNT;
+    }
+}
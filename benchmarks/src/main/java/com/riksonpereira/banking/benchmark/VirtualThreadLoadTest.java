@@ -0,0 +1,112 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.AccountService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load test for the virtual-thread request mode. Many concurrent clients
+ * transfer back and forth between two accounts under the locking engine, so
+ * requests queue on one account lock, the way they do on a hot account. The
+ * server counts how many transfer requests it holds at once: on platform
+ * threads that is capped by the Tomcat pool, on virtual threads only by the
+ * number of clients.
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final int CLIENTS = 2_000;
+
+    private static final int TRANSFERS_PER_CLIENT = 20;
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            run(virtual);
+        }
+    }
+
+    private static void run(boolean virtual) throws Exception {
+        InFlightProbe probe = new InFlightProbe();
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb(
+                ctx -> ctx.registerBean(InFlightProbe.class, () -> probe),
+                "--banking.engine=locking",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--server.tomcat.threads.max=200")) {
+            AccountService accountService = context.getBean(AccountService.class);
+            Long first = accountService.createAccount(new AccountDto(null, "Load A", Money.ofUnits(1_000_000))).getId();
+            Long second = accountService.createAccount(new AccountDto(null, "Load B", Money.ofUnits(1_000_000))).getId();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            AtomicLong failed = new AtomicLong();
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < CLIENTS; c++) {
+                    boolean forward = c % 2 == 0;
+                    clients.execute(() -> {
+                        String body = "{\"fromAccountId\":" + (forward ? first : second)
+                                + ",\"toAccountId\":" + (forward ? second : first) + ",\"amount\":1.00}";
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/accounts/transfer"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        for (int i = 0; i < TRANSFERS_PER_CLIENT; i++) {
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) {
+                                    failed.incrementAndGet();
+                                }
+                            } catch (IOException | InterruptedException e) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    });
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long total = (long) CLIENTS * TRANSFERS_PER_CLIENT;
+            System.out.printf("%s threads: max in-flight=%d transfers/s=%.0f failed=%d%n",
+                    virtual ? "virtual" : "platform", probe.maxInFlight.get(), total / seconds, failed.get());
+        }
+    }
+
+    // Registered as a servlet filter, so it sees every request while a request thread holds it
+    static final class InFlightProbe implements Filter {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
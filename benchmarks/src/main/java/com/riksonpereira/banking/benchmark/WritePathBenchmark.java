@@ -0,0 +1,93 @@
+package com.riksonpereira.banking.benchmark;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the conditional-UPDATE write path with the locked read-modify-write
+ * path for withdrawals on one hot account and transfers between random pairs.
+ * Database-level conflicts are consumed rather than failing the run, since the
+ * locking engine surfaces them under SERIALIZABLE isolation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class WritePathBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    @Param({"locking", "atomic"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private Long hotAccountId;
+
+    private Long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--banking.engine=" + engine);
+        accountService = context.getBean(AccountService.class);
+
+        hotAccountId = accountService.createAccount(new AccountDto(null, "hot", Money.ofUnits(1_000_000_000))).getId();
+        accountIds = new Long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountIds[i] = accountService.createAccount(new AccountDto(null, "account-" + i, Money.ofUnits(1_000_000_000))).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void withdrawHotAccount(Blackhole blackhole) {
+        try {
+            blackhole.consume(accountService.withdraw(hotAccountId, 1));
+        } catch (DataAccessException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    @Benchmark
+    public void transferRandomPair(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        try {
+            accountService.transferFunds(new TransferFundDto(accountIds[from], accountIds[to], 1));
+        } catch (DataAccessException e) {
+            blackhole.consume(e);
+        }
+    }
+}
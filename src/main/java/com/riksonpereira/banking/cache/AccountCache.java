@@ -0,0 +1,80 @@
+package com.riksonpereira.banking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of {@link AccountDto} by id, filled by reads and
+ * by the balance snapshot. Once full, Caffeine's W-TinyLFU policy evicts the
+ * accounts least likely to be read again, so a scan over cold accounts does
+ * not flush the hot ones. Writes of this node drop the entry after they
+ * commit and the next read reloads it. Other nodes' writes are not seen, so enable it only when one
+ * instance owns the accounts ({@code banking.cache.enabled}).
+ */
+@Component
+public class AccountCache {
+
+    private final boolean enabled;
+
+    private final Cache<Long, AccountDto> accounts;
+
+    public AccountCache(BankingProperties bankingProperties, MeterRegistry meterRegistry) {
+        BankingProperties.Cache properties = bankingProperties.getCache();
+        this.enabled = properties.isEnabled();
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+        if (enabled) {
+            // cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=accounts
+            CaffeineCacheMetrics.monitor(meterRegistry, accounts, "accounts");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AccountDto get(Long id, Function<Long, AccountDto> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        // The loader runs inside the entry's compute, so a put or invalidate of the same id
+        // waits for it and then wins; a load can never re-install a balance a write replaced
+        return accounts.get(id, loader);
+    }
+
+    // Cached account or null; never loads
+    public AccountDto getIfPresent(Long id) {
+        return enabled ? accounts.getIfPresent(id) : null;
+    }
+
+    // Startup catch-up only, before requests are served. A write must invalidate instead:
+    // results of concurrent writes can arrive out of commit order
+    public void put(AccountDto account) {
+        if (enabled) {
+            accounts.put(account.getId(), account);
+        }
+    }
+
+    // Called after every write committed
+    public void invalidate(Long id) {
+        if (enabled) {
+            accounts.invalidate(id);
+        }
+    }
+
+    // Warm-up only: never replaces an entry a read or write installed first
+    public void preload(AccountDto account) {
+        if (enabled) {
+            accounts.asMap().putIfAbsent(account.getId(), account);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.riksonpereira.banking.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the
+ * loader and every caller arriving while it is in flight waits for and
+ * shares its result or exception. Nothing is kept once the load finishes,
+ * so this flattens bursts without caching anything. Results are shared
+ * between threads and must not be modified by callers.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+
+    private final Counter deduplicated;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("banking.reads.loads")
+                .description("Reads that ran their own load")
+                .tag("read", name)
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("banking.reads.deduplicated")
+                .description("Reads that joined a load already in flight for the same key")
+                .tag("read", name)
+                .register(meterRegistry);
+    }
+
+    public V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            deduplicated.increment();
+            return join(running);
+        }
+
+        loads.increment();
+        try {
+            V value = loader.apply(key);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Called after a write committed: loads already in flight may have read
+     * the old state, so later callers of the matching keys start a new one.
+     */
+    public void forget(Predicate<K> keys) {
+        inFlight.keySet().removeIf(keys);
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // Rethrow what the loader threw, so callers see the same exception types either way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.riksonpereira.banking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "banking")
+public class BankingProperties {
+
+    // Which LedgerEngine applies deposits, withdrawals and transfers
+    private Engine engine = Engine.ATOMIC;
+
+    private final InMemory inMemory = new InMemory();
+
+    private final Locks locks = new Locks();
+
+    private final GroupCommit groupCommit = new GroupCommit();
+
+    private final Optimistic optimistic = new Optimistic();
+
+    private final Sharded sharded = new Sharded();
+
+    private final Journal journal = new Journal();
+
+    private final Cache cache = new Cache();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Operations operations = new Operations();
+
+    private final Imports imports = new Imports();
+
+    private final Exports exports = new Exports();
+
+    public enum Engine {
+        ATOMIC,
+        LOCKING,
+        OPTIMISTIC,
+        IN_MEMORY,
+        SHARDED
+    }
+
+    @Getter
+    @Setter
+    public static class InMemory {
+        // Max number of ledger entries waiting to be written to the database
+        private int queueCapacity = 65_536;
+        // Max number of ledger entries written in one database transaction
+        private int batchSize = 1_000;
+        // How long the writer waits for more entries before flushing a partial batch
+        private Duration flushInterval = Duration.ofMillis(20);
+        // How long shutdown waits for queued entries to be persisted before giving up
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Locks {
+        // Number of account lock stripes, rounded up to a power of two
+        private int stripes = 1_024;
+        // LOCAL locks one JVM only; DATABASE adds leases shared by all instances
+        private Mode mode = Mode.LOCAL;
+        // How long a database lease stays valid if its holder never releases it
+        private Duration leaseDuration = Duration.ofSeconds(10);
+        // Give up (409) when another instance holds the lease for this long
+        private Duration acquireTimeout = Duration.ofSeconds(5);
+
+        public enum Mode {
+            LOCAL,
+            DATABASE
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+        // Batch deposits and withdrawals in front of the atomic engine
+        private boolean enabled = false;
+        // Max number of operations applied in one database transaction
+        private int maxBatchSize = 256;
+        // Upper bound on how long a busy committer waits to fill a batch
+        private Duration maxWait = Duration.ofMillis(1);
+        // Max number of operations waiting for a committer
+        private int queueCapacity = 16_384;
+        // Number of threads committing batches concurrently
+        private int committers = 2;
+        // Max wait for a committer to take an operation, and the batch transaction timeout
+        private Duration submitTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Optimistic {
+        // Attempts per operation before a version conflict is reported to the caller
+        private int maxAttempts = 5;
+        // Backoff before the first retry; doubles per attempt, randomised by full jitter
+        private Duration initialBackoff = Duration.ofMillis(2);
+        private Duration maxBackoff = Duration.ofMillis(50);
+    }
+
+    @Getter
+    @Setter
+    public static class Sharded {
+        // Number of single-writer shard threads; accounts are hashed onto them
+        private int shards = Runtime.getRuntime().availableProcessors();
+        // Max number of operations waiting on one shard
+        private int queueCapacity = 4_096;
+    }
+
+    @Getter
+    @Setter
+    public static class Journal {
+        // Write ledger rows to a local journal and drain them to the database in the background
+        private boolean enabled = false;
+        private Path directory = Path.of("data", "journal");
+        // Drained segments are moved here instead of deleted, keeping a replayable history
+        private Path archiveDirectory;
+        // CHANNEL fsyncs before acknowledging; MAPPED acknowledges after the copy into a mapped file
+        private Storage storage = Storage.CHANNEL;
+        // How often MAPPED storage forces its pages to disk
+        private Duration syncInterval = Duration.ofMillis(10);
+        // A journal file is closed and started anew once it grows past this size
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        // Max number of committed entries waiting for the drainer
+        private int queueCapacity = 65_536;
+        // Max number of entries inserted in one database transaction
+        private int batchSize = 1_000;
+        // How long the drainer waits for more entries before inserting a partial batch
+        private Duration flushInterval = Duration.ofMillis(20);
+
+        public enum Storage {
+            CHANNEL,
+            MAPPED
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        // Serve account reads from memory; every write through AccountService drops the entry
+        private boolean enabled = false;
+        // Max number of cached accounts; beyond it the least valuable ones are evicted
+        private long maximumSize = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+        // Periodically write all balances to a binary file and warm the cache from it on startup
+        private boolean enabled = false;
+        private Path file = Path.of("data", "balances.snapshot");
+        private Duration interval = Duration.ofMinutes(5);
+        // Rows updated this long before the snapshot was taken are re-read during catch-up
+        private Duration catchUpMargin = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Operations {
+        // Operations of a batch committed together when the engine runs in the caller's transaction
+        private int chunkSize = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Imports {
+        // Local files can only be imported from this directory
+        private Path directory = Path.of("data", "import");
+        // Accounts inserted per JDBC batch and transaction
+        private int batchSize = 1_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Exports {
+        // Each ledger export gets a subdirectory here
+        private Path directory = Path.of("data", "exports");
+        // A new gzip file is started once the current one grows past this size
+        private DataSize rollSize = DataSize.ofMegabytes(256);
+    }
+}
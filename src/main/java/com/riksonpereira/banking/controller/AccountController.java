@@ -1,24 +1,56 @@
 package com.riksonpereira.banking.controller;
 
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.riksonpereira.banking.dto.AccountBatch;
 import com.riksonpereira.banking.dto.AccountDto;
-import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountOperation;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.AmountRequest;
+import com.riksonpereira.banking.dto.BatchGetRequest;
+import com.riksonpereira.banking.dto.OperationResult;
+import com.riksonpereira.banking.dto.TransactionPage;
 import com.riksonpereira.banking.dto.TransferFundDto;
+import com.riksonpereira.banking.money.Money;
 import com.riksonpereira.banking.service.AccountService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AccountController {
 
+    private static final int MAX_PAGE_SIZE = 1_000;
+
+    private static final int MAX_BATCH_SIZE = 1_000;
+
+    private static final int MAX_OPERATIONS = 10_000;
+
+    // Operations read from an NDJSON stream before they are executed and answered
+    private static final int OPERATION_STREAM_WINDOW = 1_000;
+
     private AccountService accountService;
 
-    public AccountController(AccountService accountService) {
+    private ObjectMapper objectMapper;
+
+    public AccountController(AccountService accountService, ObjectMapper objectMapper) {
         this.accountService = accountService;
+        this.objectMapper = objectMapper;
     }
 
     // Add Account REST API
@@ -34,33 +66,57 @@ public class AccountController {
         return ResponseEntity.ok(accountDto);
     }
 
+    // Batch Get Accounts REST API (results in request order, null for unknown ids)
+    @PostMapping("/batch-get")
+    public ResponseEntity<AccountBatch> batchGetAccounts(@RequestBody BatchGetRequest request){
+        checkBatch(request.ids());
+        AccountBatch accounts = accountService.getAccountsByIds(request.ids());
+        return ResponseEntity.ok(accounts);
+    }
+
     // Deposit REST API
     @PutMapping("/{id}/deposit")
     public ResponseEntity<AccountDto> deposit(@PathVariable Long id,
-                                              @RequestBody Map<String, Double> request){
+                                              @RequestBody AmountRequest request){
 
-        Double amount = request.get("amount");
-        AccountDto accountDto = accountService.deposit(id, amount);
+        AccountDto accountDto = accountService.deposit(id, request.amount());
         return ResponseEntity.ok(accountDto);
     }
 
     // Withdraw REST API
     @PutMapping("/{id}/withdraw")
     public ResponseEntity<AccountDto> withdraw(@PathVariable Long id,
-                                               @RequestBody Map<String, Double> request){
+                                               @RequestBody AmountRequest request){
 
-        double amount = request.get("amount");
-        AccountDto accountDto = accountService.withdraw(id, amount);
+        AccountDto accountDto = accountService.withdraw(id, request.amount());
         return ResponseEntity.ok(accountDto);
     }
 
-    // Get All Accounts REST API
+    // Get Accounts REST API (keyset paginated by id, optional filters)
     @GetMapping
-    public ResponseEntity<List<AccountDto>> getAllAccounts(){
-        List<AccountDto> accounts = accountService.getAllAccounts();
+    public ResponseEntity<AccountPage> getAllAccounts(@RequestParam(required = false) Long after,
+                                                      @RequestParam(defaultValue = "50") int limit,
+                                                      @RequestParam(required = false) String minBalance,
+                                                      @RequestParam(required = false) String maxBalance,
+                                                      @RequestParam(required = false) String namePrefix){
+        checkLimit(limit);
+        AccountFilter filter = toFilter(minBalance, maxBalance, namePrefix);
+        AccountPage accounts = accountService.getAccounts(filter, after, limit);
         return ResponseEntity.ok(accounts);
     }
 
+    // Export Accounts REST API (one JSON document per line, constant memory)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(required = false) String minBalance,
+                                                                @RequestParam(required = false) String maxBalance,
+                                                                @RequestParam(required = false) String namePrefix){
+        AccountFilter filter = toFilter(minBalance, maxBalance, namePrefix);
+        StreamingResponseBody body = outputStream -> accountService.exportAccounts(filter,
+                account -> writeLine(outputStream, account));
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // Delete Account REST API
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteAccount(@PathVariable Long id){
@@ -75,11 +131,90 @@ public class AccountController {
         return ResponseEntity.ok("Transfer Successful");
     }
 
-    //Build transactions Rest API
+    //Build operations Rest API (deposits, withdrawals and transfers in order, one result each)
+    @PostMapping(value = "/operations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<OperationResult>> executeOperations(@RequestBody List<AccountOperation> operations){
+        if (operations.isEmpty() || operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("operations must contain between 1 and " + MAX_OPERATIONS + " items");
+        }
+        return ResponseEntity.ok(accountService.executeOperations(operations));
+    }
+
+    //Build operations streaming Rest API (one operation per line in, one result per line out, constant memory)
+    @PostMapping(value = "/operations", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void executeOperationStream(InputStream inputStream, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream outputStream = response.getOutputStream();
+        List<AccountOperation> window = new ArrayList<>(OPERATION_STREAM_WINDOW);
+        try (MappingIterator<AccountOperation> operations = objectMapper.readerFor(AccountOperation.class)
+                .readValues(inputStream)) {
+            while (operations.hasNextValue()) {
+                window.add(operations.nextValue());
+                if (window.size() == OPERATION_STREAM_WINDOW) {
+                    accountService.executeOperations(window).forEach(result -> writeLine(outputStream, result));
+                    window.clear();
+                }
+            }
+        } catch (JsonMappingException e) {
+            // An unreadable line, such as a negative amount, is a bad request like it is in a JSON array
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+        if (!window.isEmpty()) {
+            accountService.executeOperations(window).forEach(result -> writeLine(outputStream, result));
+        }
+    }
+
+    //Build transactions Rest API (keyset paginated, newest first)
     @GetMapping("/{id}/transactions")
-    public ResponseEntity<List<TransactionDto>> fetchAccountTransactions(@PathVariable("id") Long accountId){
-        List<TransactionDto> transactions = accountService.getAccountTransactions(accountId);
+    public ResponseEntity<TransactionPage> fetchAccountTransactions(@PathVariable("id") Long accountId,
+                                                                    @RequestParam(required = false) String next,
+                                                                    @RequestParam(defaultValue = "50") int limit){
+        checkLimit(limit);
+        TransactionPage transactions = accountService.getAccountTransactions(accountId, next, limit);
 
         return ResponseEntity.ok(transactions);
     }
+
+    //Build transactions streaming Rest API (one JSON document per line, constant memory)
+    @GetMapping(value = "/{id}/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAccountTransactions(@PathVariable("id") Long accountId){
+        StreamingResponseBody body = outputStream -> accountService.streamAccountTransactions(accountId,
+                transaction -> writeLine(outputStream, transaction));
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static void checkBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("ids must contain between 1 and " + MAX_BATCH_SIZE + " ids");
+        }
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("ids must not contain null");
+            }
+        }
+    }
+
+    // Balance bounds arrive as decimal amounts and are compared in minor units
+    private static AccountFilter toFilter(String minBalance, String maxBalance, String namePrefix) {
+        return new AccountFilter(minBalance == null ? null : Money.parse(minBalance),
+                maxBalance == null ? null : Money.parse(maxBalance),
+                namePrefix);
+    }
+
+    // Writes one NDJSON line
+    private void writeLine(OutputStream outputStream, Object value) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(value));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.riksonpereira.banking.controller;
+
+import com.riksonpereira.banking.dto.ImportStatus;
+import com.riksonpereira.banking.importer.AccountImporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accounts/imports")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AccountImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private AccountImporter accountImporter;
+
+    public AccountImportController(AccountImporter accountImporter) {
+        this.accountImporter = accountImporter;
+    }
+
+    // Import CSV REST API (the body is read while it arrives; returns once every line is processed)
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ImportStatus> importCsv(InputStream inputStream){
+        return finished(accountImporter.importStream(inputStream, AccountImporter.Format.CSV, "request"));
+    }
+
+    // Import NDJSON REST API (one account per line)
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportStatus> importNdjson(InputStream inputStream){
+        return finished(accountImporter.importStream(inputStream, AccountImporter.Format.NDJSON, "request"));
+    }
+
+    // Import File REST API (runs in the background; poll the returned id)
+    @PostMapping(params = "file")
+    public ResponseEntity<ImportStatus> importFile(@RequestParam String file){
+        return new ResponseEntity<>(accountImporter.startFileImport(file), HttpStatus.ACCEPTED);
+    }
+
+    // Import Status REST APIs
+    @GetMapping
+    public ResponseEntity<List<ImportStatus>> getImports(){
+        return ResponseEntity.ok(accountImporter.statuses());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportStatus> getImport(@PathVariable long id){
+        return ResponseEntity.of(accountImporter.status(id));
+    }
+
+    private static ResponseEntity<ImportStatus> finished(ImportStatus status) {
+        HttpStatus httpStatus = status.state() == ImportStatus.State.FAILED
+                ? HttpStatus.INTERNAL_SERVER_ERROR
+                : HttpStatus.CREATED;
+        return new ResponseEntity<>(status, httpStatus);
+    }
+}
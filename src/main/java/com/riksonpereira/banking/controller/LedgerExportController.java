@@ -0,0 +1,128 @@
+package com.riksonpereira.banking.controller;
+
+import com.riksonpereira.banking.dto.ExportStatus;
+import com.riksonpereira.banking.export.LedgerExporter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/ledger/exports")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LedgerExportController {
+
+    // Set by Tomcat when the connector can send a file straight from the page cache to the socket
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private LedgerExporter ledgerExporter;
+
+    public LedgerExportController(LedgerExporter ledgerExporter) {
+        this.ledgerExporter = ledgerExporter;
+    }
+
+    // Start Export REST API (runs in the background; poll the returned id)
+    @PostMapping
+    public ResponseEntity<ExportStatus> startExport(@RequestParam(defaultValue = "csv") String format){
+        LedgerExporter.Format exportFormat = switch (format.toLowerCase()) {
+            case "csv" -> LedgerExporter.Format.CSV;
+            case "ndjson" -> LedgerExporter.Format.NDJSON;
+            default -> throw new IllegalArgumentException("format must be csv or ndjson");
+        };
+        return new ResponseEntity<>(ledgerExporter.start(exportFormat), HttpStatus.ACCEPTED);
+    }
+
+    // Export Status REST APIs
+    @GetMapping
+    public ResponseEntity<List<ExportStatus>> getExports(){
+        return ResponseEntity.ok(ledgerExporter.statuses());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportStatus> getExport(@PathVariable String id){
+        return ResponseEntity.of(ledgerExporter.status(id));
+    }
+
+    // Download Export File REST API (zero-copy, single byte ranges for resuming)
+    @GetMapping("/{id}/files/{name}")
+    public void downloadFile(@PathVariable String id,
+                             @PathVariable String name,
+                             @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        Optional<Path> found = ledgerExporter.file(id, name);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path file = found.get();
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Several ranges are answered with the whole file, which RFC 9110 allows
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+        }
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name).build().toString());
+        response.setContentLengthLong(end - start + 1);
+        if (end < start || "HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat transfers the file with FileChannel.transferTo after this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long sent = channel.transferTo(position, end + 1 - position, out);
+                if (sent <= 0) {
+                    throw new EOFException("Export file " + name + " ended early");
+                }
+                position += sent;
+            }
+        }
+    }
+}
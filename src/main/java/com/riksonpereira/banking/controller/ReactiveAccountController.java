@@ -0,0 +1,143 @@
+package com.riksonpereira.banking.controller;
+
+import com.riksonpereira.banking.dto.AccountBatch;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.AmountRequest;
+import com.riksonpereira.banking.dto.BatchGetRequest;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.service.ReactiveAccountService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Same /api/accounts contract as AccountController, served by WebFlux
+@RestController
+@RequestMapping("/api/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountController {
+
+    private static final int MAX_PAGE_SIZE = 1_000;
+
+    private static final int MAX_BATCH_SIZE = 1_000;
+
+    private ReactiveAccountService accountService;
+
+    public ReactiveAccountController(ReactiveAccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    // Add Account REST API
+    @PostMapping
+    public Mono<ResponseEntity<AccountDto>> addAccount(@RequestBody AccountDto accountDto){
+        return accountService.createAccount(accountDto)
+                .map(account -> new ResponseEntity<>(account, HttpStatus.CREATED));
+    }
+
+    // Get Account REST API
+    @GetMapping("/{id}")
+    public Mono<AccountDto> getAccountById(@PathVariable Long id){
+        return accountService.getAccountById(id);
+    }
+
+    // Batch Get Accounts REST API (results in request order, null for unknown ids)
+    @PostMapping("/batch-get")
+    public Mono<AccountBatch> batchGetAccounts(@RequestBody BatchGetRequest request){
+        checkBatch(request.ids());
+        return accountService.getAccountsByIds(request.ids());
+    }
+
+    // Deposit REST API
+    @PutMapping("/{id}/deposit")
+    public Mono<AccountDto> deposit(@PathVariable Long id,
+                                    @RequestBody AmountRequest request){
+        return accountService.deposit(id, request.amount());
+    }
+
+    // Withdraw REST API
+    @PutMapping("/{id}/withdraw")
+    public Mono<AccountDto> withdraw(@PathVariable Long id,
+                                     @RequestBody AmountRequest request){
+        return accountService.withdraw(id, request.amount());
+    }
+
+    // Get Accounts REST API (keyset paginated by id, optional filters)
+    @GetMapping
+    public Mono<AccountPage> getAllAccounts(@RequestParam(required = false) Long after,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            @RequestParam(required = false) String minBalance,
+                                            @RequestParam(required = false) String maxBalance,
+                                            @RequestParam(required = false) String namePrefix){
+        checkLimit(limit);
+        return accountService.getAccounts(toFilter(minBalance, maxBalance, namePrefix), after, limit);
+    }
+
+    // Export Accounts REST API (one JSON document per line, written as rows arrive)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountDto> exportAccounts(@RequestParam(required = false) String minBalance,
+                                           @RequestParam(required = false) String maxBalance,
+                                           @RequestParam(required = false) String namePrefix){
+        return accountService.exportAccounts(toFilter(minBalance, maxBalance, namePrefix));
+    }
+
+    // Delete Account REST API
+    @DeleteMapping("/{id}")
+    public Mono<String> deleteAccount(@PathVariable Long id){
+        return accountService.deleteAccount(id).thenReturn("Account is deleted successfully!");
+    }
+
+    //Build transfer Rest API
+    @PostMapping("/transfer")
+    public Mono<String> transferFund(@RequestBody TransferFundDto transferFundDto){
+        return accountService.transferFunds(transferFundDto).thenReturn("Transfer Successful");
+    }
+
+    //Build transactions Rest API (keyset paginated, newest first)
+    @GetMapping("/{id}/transactions")
+    public Mono<TransactionPage> fetchAccountTransactions(@PathVariable("id") Long accountId,
+                                                          @RequestParam(required = false) String next,
+                                                          @RequestParam(defaultValue = "50") int limit){
+        checkLimit(limit);
+        return accountService.getAccountTransactions(accountId, next, limit);
+    }
+
+    //Build transactions streaming Rest API (one JSON document per line, written as rows arrive)
+    @GetMapping(value = "/{id}/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDto> streamAccountTransactions(@PathVariable("id") Long accountId){
+        return accountService.streamAccountTransactions(accountId);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static void checkBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("ids must contain between 1 and " + MAX_BATCH_SIZE + " ids");
+        }
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("ids must not contain null");
+            }
+        }
+    }
+
+    // Balance bounds arrive as decimal amounts and are compared in minor units
+    private static AccountFilter toFilter(String minBalance, String maxBalance, String namePrefix) {
+        return new AccountFilter(minBalance == null ? null : Money.parse(minBalance),
+                maxBalance == null ? null : Money.parse(maxBalance),
+                namePrefix);
+    }
+}
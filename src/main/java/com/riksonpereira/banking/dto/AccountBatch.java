@@ -0,0 +1,23 @@
+package com.riksonpereira.banking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// accounts[i] answers ids[i] of the request and is null when that account does not exist; notFound lists those ids
+public record AccountBatch(List<AccountDto> accounts,
+                           List<Long> notFound) {
+
+    public static AccountBatch of(List<Long> ids, Map<Long, AccountDto> found) {
+        List<AccountDto> accounts = new ArrayList<>(ids.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : ids) {
+            AccountDto account = found.get(id);
+            accounts.add(account);
+            if (account == null) {
+                notFound.add(id);
+            }
+        }
+        return new AccountBatch(accounts, notFound);
+    }
+}
@@ -1,5 +1,9 @@
 package com.riksonpereira.banking.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.riksonpereira.banking.money.MoneyJsonDeserializer;
+import com.riksonpereira.banking.money.MoneyJsonSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -8,5 +12,8 @@ import lombok.Data;
 public class AccountDto {
     private Long id;
     private String accountHolderName;
-    private double balance;
+    // Minor units; a decimal amount in JSON
+    @JsonSerialize(using = MoneyJsonSerializer.class)
+    @JsonDeserialize(using = MoneyJsonDeserializer.class)
+    private long balance;
 }
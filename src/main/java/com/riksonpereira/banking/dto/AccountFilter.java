@@ -0,0 +1,7 @@
+package com.riksonpereira.banking.dto;
+
+// Optional criteria for account listings; null fields are not applied. Balances are in minor units
+public record AccountFilter(Long minBalance,
+                            Long maxBalance,
+                            String namePrefix) {
+}
@@ -0,0 +1,17 @@
+package com.riksonpereira.banking.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.riksonpereira.banking.money.AmountJsonDeserializer;
+
+// One item of the operations API; accountId is the account deposited to, withdrawn from or transferred from
+public record AccountOperation(Type type,
+                               Long accountId,
+                               Long toAccountId,
+                               @JsonDeserialize(using = AmountJsonDeserializer.class) long amount) {
+
+    public enum Type {
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+}
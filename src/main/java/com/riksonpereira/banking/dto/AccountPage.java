@@ -0,0 +1,8 @@
+package com.riksonpereira.banking.dto;
+
+import java.util.List;
+
+// next is the id to pass as "after" for the following page, or null on the last page
+public record AccountPage(List<AccountDto> accounts,
+                          Long next) {
+}
@@ -0,0 +1,8 @@
+package com.riksonpereira.banking.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.riksonpereira.banking.money.AmountJsonDeserializer;
+
+// Body of the deposit and withdraw APIs; amount is in minor units, a decimal amount in JSON
+public record AmountRequest(@JsonDeserialize(using = AmountJsonDeserializer.class) long amount) {
+}
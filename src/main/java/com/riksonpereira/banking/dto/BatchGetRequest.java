@@ -0,0 +1,7 @@
+package com.riksonpereira.banking.dto;
+
+import java.util.List;
+
+// Body of the batch-get API; ids may repeat and come back in the same order
+public record BatchGetRequest(List<Long> ids) {
+}
@@ -0,0 +1,25 @@
+package com.riksonpereira.banking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of a ledger export; files lists the finished parts, downloadable once the export is COMPLETED
+public record ExportStatus(String id,
+                           String format,
+                           State state,
+                           long rows,
+                           List<ExportFile> files,
+                           LocalDateTime startedAt,
+                           LocalDateTime finishedAt,
+                           String failure) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    // size is the compressed size in bytes
+    public record ExportFile(String name, long size) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.riksonpereira.banking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Progress of an account import; errors holds the first rejected lines, failure is set when the import aborted
+public record ImportStatus(long id,
+                           String source,
+                           State state,
+                           long linesRead,
+                           long imported,
+                           long rejected,
+                           List<LineError> errors,
+                           LocalDateTime startedAt,
+                           LocalDateTime finishedAt,
+                           String failure) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record LineError(long line, String message) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.riksonpereira.banking.dto;
+
+// Outcome of one AccountOperation; account is the new state after a deposit or withdrawal, errorCode as in ErrorDetails
+public record OperationResult(boolean success,
+                              AccountDto account,
+                              String errorCode,
+                              String message) {
+
+    public static OperationResult succeeded(AccountDto account) {
+        return new OperationResult(true, account, null, null);
+    }
+
+    public static OperationResult failed(String errorCode, String message) {
+        return new OperationResult(false, null, errorCode, message);
+    }
+}
@@ -1,10 +1,14 @@
 package com.riksonpereira.banking.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.riksonpereira.banking.money.MoneyJsonSerializer;
+
 import java.time.LocalDateTime;
 
+// amount is in minor units; a decimal amount in JSON
 public record TransactionDto(Long id,
                              Long accountId,
-                             double amount,
+                             @JsonSerialize(using = MoneyJsonSerializer.class) long amount,
                              String transactionType,
                              LocalDateTime timestamp) {
 }
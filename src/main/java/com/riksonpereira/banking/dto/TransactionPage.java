@@ -0,0 +1,8 @@
+package com.riksonpereira.banking.dto;
+
+import java.util.List;
+
+// next is an opaque token for the following page, or null on the last page
+public record TransactionPage(List<TransactionDto> transactions,
+                              String next) {
+}
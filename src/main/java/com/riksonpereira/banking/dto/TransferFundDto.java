@@ -1,6 +1,10 @@
 package com.riksonpereira.banking.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.riksonpereira.banking.money.AmountJsonDeserializer;
+
+// amount is in minor units; a decimal amount in JSON
 public record TransferFundDto(Long fromAccountId,
                               Long toAccountId,
-                              double amount) {
+                              @JsonDeserialize(using = AmountJsonDeserializer.class) long amount) {
 }
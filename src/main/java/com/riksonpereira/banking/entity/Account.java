@@ -20,5 +20,10 @@ public class Account {
 
     @Column(name = "account_holder_name")
     private String accountHolderName;
-    private double balance;
+    // Minor units (cents)
+    private long balance;
+
+    // Bumped on every write, including the repository's bulk balance updates
+    @Version
+    private Long version;
 }
@@ -4,6 +4,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,17 +14,30 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 
+// The schema is owned by the Flyway migrations in db/migration; the index is declared here for reference
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(name = "transaction",
+        indexes = @Index(name = Transaction.HISTORY_INDEX, columnList = "account_id, timestamp desc, id desc"))
 @Entity
 public class Transaction {
+
+    // Serves keyset-paginated history lookups by account
+    public static final String HISTORY_INDEX = "idx_transaction_account_history";
+
+    // Ids are reserved in blocks from a pooled sequence (a table on MySQL),
+    // which lets Hibernate batch inserts instead of flushing row by row
+    public static final int ID_ALLOCATION_SIZE = 100;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     private Long accountId;
-    private double amount;
-    private String TransactionType;
+    // Minor units (cents)
+    private long amount;
+    private TransactionType transactionType;
     private LocalDateTime timestamp;
 }
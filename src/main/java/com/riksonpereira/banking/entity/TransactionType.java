@@ -0,0 +1,27 @@
+package com.riksonpereira.banking.entity;
+
+// Stored as a SMALLINT code; never renumber existing constants
+public enum TransactionType {
+    DEPOSIT(1),
+    WITHDRAW(2),
+    TRANSFER(3);
+
+    private final short code;
+
+    TransactionType(int code) {
+        this.code = (short) code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public static TransactionType fromCode(short code) {
+        for (TransactionType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction type code " + code);
+    }
+}
@@ -1,7 +1,12 @@
 package com.riksonpereira.banking.exception;
 
+/**
+ * Base of the expected rejections of a request, such as a missing account or
+ * a short balance. These are routine outcomes rather than bugs, so no stack
+ * trace is captured; the subclasses keep one shared instance per message.
+ */
 public class AccountException extends RuntimeException {
     public AccountException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
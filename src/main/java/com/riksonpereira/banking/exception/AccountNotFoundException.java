@@ -0,0 +1,10 @@
+package com.riksonpereira.banking.exception;
+
+public class AccountNotFoundException extends AccountException {
+
+    public static final AccountNotFoundException INSTANCE = new AccountNotFoundException("Account does not exists");
+
+    private AccountNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,10 @@
 package com.riksonpereira.banking.exception;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -9,9 +12,10 @@ import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
-    //Handle specific Exception (Account Exception)
+    //Handle specific Exception (Account Exception); the subclasses below have their own status
     @ExceptionHandler(AccountException.class)
     public ResponseEntity<ErrorDetails> handleAccountException(AccountException exception,
                                                                WebRequest webRequest){
@@ -25,6 +29,62 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    //Handle a debit larger than the balance
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<ErrorDetails> handleInsufficientFundsException(InsufficientFundsException exception,
+                                                                         WebRequest webRequest){
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "INSUFFICIENT_FUNDS"
+        );
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    //Handle a transfer whose source and destination are the same account
+    @ExceptionHandler(SameAccountTransferException.class)
+    public ResponseEntity<ErrorDetails> handleSameAccountTransferException(SameAccountTransferException exception,
+                                                                           WebRequest webRequest){
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "INVALID_TRANSFER"
+        );
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    //Handle malformed requests such as an invalid page token or amount
+    @ExceptionHandler({IllegalArgumentException.class, HttpMessageNotReadableException.class})
+    public ResponseEntity<ErrorDetails> handleInvalidRequestException(Exception exception,
+                                                                      WebRequest webRequest){
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "INVALID_REQUEST"
+        );
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    //Handle writes that kept losing to concurrent updates of the same account
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorDetails> handleConcurrencyFailureException(ConcurrencyFailureException exception,
+                                                                          WebRequest webRequest){
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "Account was modified concurrently, please retry",
+                webRequest.getDescription(false),
+                "CONCURRENT_UPDATE"
+        );
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorDetails> handleGenericException(Exception exception,
                                                                WebRequest webRequest){
@@ -0,0 +1,14 @@
+package com.riksonpereira.banking.exception;
+
+public class InsufficientFundsException extends AccountException {
+
+    // Withdrawals
+    public static final InsufficientFundsException INSUFFICIENT_AMOUNT = new InsufficientFundsException("Insufficient amount");
+
+    // Transfers
+    public static final InsufficientFundsException INEFFICIENT_BALANCE = new InsufficientFundsException("Inefficient balance");
+
+    private InsufficientFundsException(String message) {
+        super(message);
+    }
+}
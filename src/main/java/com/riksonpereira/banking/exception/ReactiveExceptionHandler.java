@@ -0,0 +1,66 @@
+package com.riksonpereira.banking.exception;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+
+// Reactive counterpart of GlobalExceptionHandler, with the same status codes and error codes
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(AccountException.class)
+    public ResponseEntity<ErrorDetails> handleAccountException(AccountException exception,
+                                                               ServerWebExchange exchange){
+        return error(HttpStatus.NOT_FOUND, exception.getMessage(), exchange, "ACCOUNT_NOT_FOUND");
+    }
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<ErrorDetails> handleInsufficientFundsException(InsufficientFundsException exception,
+                                                                         ServerWebExchange exchange){
+        return error(HttpStatus.UNPROCESSABLE_ENTITY, exception.getMessage(), exchange, "INSUFFICIENT_FUNDS");
+    }
+
+    @ExceptionHandler(SameAccountTransferException.class)
+    public ResponseEntity<ErrorDetails> handleSameAccountTransferException(SameAccountTransferException exception,
+                                                                           ServerWebExchange exchange){
+        return error(HttpStatus.BAD_REQUEST, exception.getMessage(), exchange, "INVALID_TRANSFER");
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, ServerWebInputException.class})
+    public ResponseEntity<ErrorDetails> handleInvalidRequestException(Exception exception,
+                                                                      ServerWebExchange exchange){
+        return error(HttpStatus.BAD_REQUEST, exception.getMessage(), exchange, "INVALID_REQUEST");
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorDetails> handleConcurrencyFailureException(ConcurrencyFailureException exception,
+                                                                          ServerWebExchange exchange){
+        return error(HttpStatus.CONFLICT, "Account was modified concurrently, please retry", exchange, "CONCURRENT_UPDATE");
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorDetails> handleGenericException(Exception exception,
+                                                               ServerWebExchange exchange){
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage(), exchange, "CUSTOM_INTERNAL_SERVER_ERROR");
+    }
+
+    // Same "uri=..." details as WebRequest.getDescription(false) on the servlet stack
+    private static ResponseEntity<ErrorDetails> error(HttpStatus status, String message,
+                                                      ServerWebExchange exchange, String errorCode) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                message,
+                "uri=" + exchange.getRequest().getPath().value(),
+                errorCode
+        );
+        return new ResponseEntity<>(errorDetails, status);
+    }
+}
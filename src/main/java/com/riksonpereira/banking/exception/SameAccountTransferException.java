@@ -0,0 +1,11 @@
+package com.riksonpereira.banking.exception;
+
+public class SameAccountTransferException extends AccountException {
+
+    public static final SameAccountTransferException INSTANCE =
+            new SameAccountTransferException("Transfer not prossible to the same account");
+
+    private SameAccountTransferException(String message) {
+        super(message);
+    }
+}
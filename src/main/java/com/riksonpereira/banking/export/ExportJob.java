@@ -0,0 +1,67 @@
+package com.riksonpereira.banking.export;
+
+import com.riksonpereira.banking.dto.ExportStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mutable progress of one export; written by the export thread, read by status requests
+final class ExportJob {
+
+    private final String id;
+
+    private final LedgerExporter.Format format;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final List<ExportStatus.ExportFile> files = new ArrayList<>();
+
+    private volatile ExportStatus.State state = ExportStatus.State.RUNNING;
+
+    private volatile long rows;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String failure;
+
+    ExportJob(String id, LedgerExporter.Format format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    String id() {
+        return id;
+    }
+
+    LedgerExporter.Format format() {
+        return format;
+    }
+
+    boolean isFinished() {
+        return state != ExportStatus.State.RUNNING;
+    }
+
+    void rowWritten() {
+        rows++;
+    }
+
+    synchronized void fileFinished(String name, long size) {
+        files.add(new ExportStatus.ExportFile(name, size));
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = ExportStatus.State.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        state = ExportStatus.State.FAILED;
+    }
+
+    synchronized ExportStatus toStatus() {
+        return new ExportStatus(id, format.name(), state, rows, List.copyOf(files), startedAt, finishedAt, failure);
+    }
+}
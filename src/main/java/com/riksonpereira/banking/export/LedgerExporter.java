@@ -0,0 +1,192 @@
+package com.riksonpereira.banking.export;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.ExportStatus;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.repository.TransactionStreamRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports the whole ledger to gzip-compressed CSV or NDJSON files on local
+ * disk. Rows are read through a forward-only cursor inside one read-only
+ * transaction, so the export is a consistent snapshot, and written as they
+ * arrive; files roll over at {@code banking.exports.roll-size}. Exports run
+ * one at a time on a background thread. Files stay in
+ * {@code banking.exports.directory/<export id>}; an export that completed
+ * also gets a marker file there, and only marked exports are served, also
+ * after a restart. Running and failed exports never are.
+ */
+@Component
+public class LedgerExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerExporter.class);
+
+    private static final byte[] CSV_HEADER = "id,account_id,amount,transaction_type,timestamp\n"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    // Created once every file of the export is closed; never matches a served name
+    private static final String COMPLETED_MARKER = ".completed";
+
+    // Finished exports kept for status requests
+    private static final int RETAINED_JOBS = 100;
+
+    private final TransactionStreamRepository transactionStreamRepository;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private final ObjectWriter transactionWriter;
+
+    private final Path directory;
+
+    private final long rollBytes;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // By start sequence, so the oldest finished exports are pruned first
+    private final ConcurrentNavigableMap<Long, ExportJob> jobs = new ConcurrentSkipListMap<>();
+
+    private final ExecutorService exports = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public LedgerExporter(TransactionStreamRepository transactionStreamRepository,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          BankingProperties bankingProperties) {
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.transactionWriter = objectMapper.writerFor(TransactionDto.class);
+        BankingProperties.Exports properties = bankingProperties.getExports();
+        this.directory = properties.getDirectory().toAbsolutePath().normalize();
+        this.rollBytes = properties.getRollSize().toBytes();
+    }
+
+    public ExportStatus start(Format format) {
+        // Time-based so ids stay unique across restarts, whose files are still on disk
+        long number = sequence.incrementAndGet();
+        String id = LocalDateTime.now().format(ID_FORMAT) + "-" + number;
+        ExportJob job = new ExportJob(id, format);
+        jobs.put(number, job);
+
+        // Drop the oldest finished exports; running ones are always kept, and files stay on disk
+        jobs.values().stream()
+                .filter(ExportJob::isFinished)
+                .limit(Math.max(0, jobs.size() - RETAINED_JOBS))
+                .toList()
+                .forEach(finished -> jobs.values().remove(finished));
+
+        exports.execute(() -> run(job));
+        return job.toStatus();
+    }
+
+    public Optional<ExportStatus> status(String id) {
+        return jobs.values().stream()
+                .filter(job -> job.id().equals(id))
+                .findFirst()
+                .map(ExportJob::toStatus);
+    }
+
+    public List<ExportStatus> statuses() {
+        return jobs.values().stream().map(ExportJob::toStatus).toList();
+    }
+
+    /**
+     * A file of a completed export, also of exports from before a restart.
+     * Only plain names of parts resolve, never paths outside the export, and
+     * only once the export's completion marker exists.
+     */
+    public Optional<Path> file(String id, String name) {
+        if (id.contains("/") || id.contains("\\") || id.startsWith(".")
+                || name.contains("/") || name.contains("\\") || !name.endsWith(".gz")) {
+            return Optional.empty();
+        }
+        Path exportDirectory = directory.resolve(id).normalize();
+        Path file = exportDirectory.resolve(name).normalize();
+        if (!file.startsWith(directory) || !Files.exists(exportDirectory.resolve(COMPLETED_MARKER))) {
+            return Optional.empty();
+        }
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @PreDestroy
+    void stop() {
+        exports.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        long start = System.nanoTime();
+        try {
+            Path exportDirectory = Files.createDirectories(directory.resolve(job.id()));
+            boolean csv = job.format() == Format.CSV;
+            try (RollingGzipOutput output = new RollingGzipOutput(exportDirectory, "ledger", csv ? "csv" : "ndjson",
+                    rollBytes, csv ? CSV_HEADER : new byte[0],
+                    (file, size) -> job.fileFinished(file.getFileName().toString(), size))) {
+                snapshotTransaction.executeWithoutResult(status -> transactionStreamRepository.streamAll(transaction -> {
+                    try {
+                        output.write(csv ? toCsv(transaction) : toJson(transaction));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    job.rowWritten();
+                }));
+            }
+            Files.createFile(exportDirectory.resolve(COMPLETED_MARKER));
+            job.complete();
+            log.info("Exported {} ledger rows to {} in {} ms", job.toStatus().rows(), exportDirectory,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ledger export {} failed", job.id(), e);
+            job.fail(e.getMessage());
+        }
+    }
+
+    private static byte[] toCsv(TransactionDto transaction) {
+        return (transaction.id() + "," + transaction.accountId() + "," + Money.toString(transaction.amount()) + ","
+                + transaction.transactionType() + "," + transaction.timestamp() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] toJson(TransactionDto transaction) throws JsonProcessingException {
+        byte[] json = transactionWriter.writeValueAsBytes(transaction);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+}
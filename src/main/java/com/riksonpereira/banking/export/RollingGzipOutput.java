@@ -0,0 +1,114 @@
+package com.riksonpereira.banking.export;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes records into a series of gzip files ({@code prefix-00001.ext.gz},
+ * ...), starting the next one once the compressed size of the current file
+ * reaches the roll size. A record never spans two files and every file starts
+ * with the header, so each part can be read on its own. A part is written
+ * under a {@code .tmp} name and renamed when it is complete, so a visible
+ * part is always whole.
+ */
+final class RollingGzipOutput implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+
+    private final String prefix;
+
+    private final String extension;
+
+    private final long rollBytes;
+
+    private final byte[] header;
+
+    private final FileListener listener;
+
+    private int index;
+
+    private Path current;
+
+    private CountingOutputStream compressed;
+
+    private OutputStream out;
+
+    interface FileListener {
+        void finished(Path file, long size);
+    }
+
+    RollingGzipOutput(Path directory, String prefix, String extension, long rollBytes, byte[] header,
+                      FileListener listener) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.extension = extension;
+        this.rollBytes = rollBytes;
+        this.header = header;
+        this.listener = listener;
+    }
+
+    void write(byte[] record) throws IOException {
+        if (out == null) {
+            open();
+        } else if (compressed.count >= rollBytes) {
+            finish();
+            open();
+        }
+        out.write(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            finish();
+        }
+    }
+
+    private void open() throws IOException {
+        index++;
+        current = directory.resolve(String.format("%s-%05d.%s.gz.tmp", prefix, index, extension));
+        compressed = new CountingOutputStream(Files.newOutputStream(current));
+        out = new BufferedOutputStream(new GZIPOutputStream(compressed, BUFFER_SIZE), BUFFER_SIZE);
+        out.write(header);
+    }
+
+    private void finish() throws IOException {
+        out.close();
+        out = null;
+        String name = current.getFileName().toString();
+        Path finished = current.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+        Files.move(current, finished, StandardCopyOption.ATOMIC_MOVE);
+        listener.finished(finished, compressed.count);
+    }
+
+    // Compressed bytes that reached the file so far
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
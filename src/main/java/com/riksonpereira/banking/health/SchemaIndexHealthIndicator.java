@@ -0,0 +1,94 @@
+package com.riksonpereira.banking.health;
+
+import com.riksonpereira.banking.entity.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks once at startup that the indexes the query paths depend on exist,
+ * and reports any that are missing as a {@code WARN} health status.
+ */
+@Component("schemaIndexes")
+public class SchemaIndexHealthIndicator implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexHealthIndicator.class);
+
+    private static final Status WARN = new Status("WARN");
+
+    // table name -> indexes expected on it
+    private static final Map<String, List<String>> EXPECTED_INDEXES = Map.of(
+            "transaction", List.of(Transaction.HISTORY_INDEX)
+    );
+
+    private final DataSource dataSource;
+
+    private volatile Health health = Health.unknown().withDetail("reason", "Schema not checked yet").build();
+
+    public SchemaIndexHealthIndicator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        try {
+            List<String> missing = JdbcUtils.extractDatabaseMetaData(dataSource, this::findMissingIndexes);
+            if (missing.isEmpty()) {
+                health = Health.up().build();
+            } else {
+                log.warn("Missing database indexes: {}", missing);
+                health = Health.status(WARN).withDetail("missingIndexes", missing).build();
+            }
+        } catch (Exception e) {
+            log.warn("Could not verify database indexes", e);
+            health = Health.unknown().withException(e).build();
+        }
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    private List<String> findMissingIndexes(DatabaseMetaData metaData) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        String catalog = metaData.getConnection().getCatalog();
+        for (Map.Entry<String, List<String>> table : EXPECTED_INDEXES.entrySet()) {
+            Set<String> present = new HashSet<>();
+            String tableName = metaData.storesUpperCaseIdentifiers()
+                    ? table.getKey().toUpperCase(Locale.ROOT)
+                    : table.getKey();
+            try (ResultSet indexes = metaData.getIndexInfo(catalog, null, tableName, false, true)) {
+                while (indexes.next()) {
+                    String name = indexes.getString("INDEX_NAME");
+                    if (name != null) {
+                        present.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            for (String index : table.getValue()) {
+                if (!present.contains(index.toLowerCase(Locale.ROOT))) {
+                    missing.add(table.getKey() + "." + index);
+                }
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,275 @@
+package com.riksonpereira.banking.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.ImportStatus;
+import com.riksonpereira.banking.money.Money;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Creates accounts with opening balances from CSV ({@code account_holder_name,balance},
+ * header optional) or NDJSON (one {@link AccountDto} per line). Input is read
+ * line by line and written with batched JDBC inserts, one transaction per
+ * batch, so memory stays constant however large the input is. Invalid lines
+ * are counted and reported without stopping the import; a database error
+ * stops it, keeping the batches already committed.
+ * <p>
+ * JDBC rather than a Hibernate (stateless) session: account ids are IDENTITY
+ * columns, for which Hibernate sends every insert on its own.
+ */
+@Component
+public class AccountImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountImporter.class);
+
+    private static final String INSERT_SQL = "insert into accounts (account_holder_name, balance, version) values (?, ?, 0)";
+
+    private static final String CSV_HEADER = "account_holder_name,balance";
+
+    // Same limit as the account_holder_name column
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    // Finished imports kept for status requests
+    private static final int RETAINED_JOBS = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader accountReader;
+
+    private final Path directory;
+
+    private final int batchSize;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    private final ConcurrentNavigableMap<Long, ImportJob> jobs = new ConcurrentSkipListMap<>();
+
+    private final ExecutorService fileImports = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "account-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public AccountImporter(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper,
+                           BankingProperties bankingProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountReader = objectMapper.readerFor(AccountDto.class);
+        BankingProperties.Imports properties = bankingProperties.getImports();
+        this.directory = properties.getDirectory().toAbsolutePath().normalize();
+        this.batchSize = properties.getBatchSize();
+    }
+
+    // Imports a request body on the calling thread and returns the final status
+    public ImportStatus importStream(InputStream inputStream, Format format, String source) {
+        ImportJob job = register(source);
+        run(job, inputStream, format);
+        return job.toStatus();
+    }
+
+    /**
+     * Starts importing a file from {@code banking.imports.directory} in the
+     * background; the format follows the extension (.csv, .ndjson or .jsonl).
+     */
+    public ImportStatus startFileImport(String fileName) {
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No such import file: " + fileName);
+        }
+        Format format = formatOf(file);
+        ImportJob job = register(file.getFileName().toString());
+        fileImports.execute(() -> {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                run(job, inputStream, format);
+            } catch (IOException e) {
+                job.fail(e.getMessage());
+            }
+        });
+        return job.toStatus();
+    }
+
+    public Optional<ImportStatus> status(long id) {
+        return Optional.ofNullable(jobs.get(id)).map(ImportJob::toStatus);
+    }
+
+    public List<ImportStatus> statuses() {
+        return jobs.values().stream().map(ImportJob::toStatus).toList();
+    }
+
+    @PreDestroy
+    void stop() {
+        fileImports.shutdownNow();
+    }
+
+    private ImportJob register(String source) {
+        ImportJob job = new ImportJob(nextId.incrementAndGet(), source);
+        jobs.put(job.id(), job);
+        // Drop the oldest finished imports; running ones are always kept
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .limit(Math.max(0, jobs.size() - RETAINED_JOBS))
+                .toList()
+                .forEach(finished -> jobs.remove(finished.id()));
+        return job;
+    }
+
+    private void run(ImportJob job, InputStream inputStream, Format format) {
+        long start = System.nanoTime();
+        List<AccountDto> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                job.lineRead();
+                if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) {
+                    continue;
+                }
+                try {
+                    batch.add(validate(format == Format.CSV ? parseCsv(line) : parseJson(line)));
+                } catch (IllegalArgumentException e) {
+                    job.reject(lineNumber, e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    insert(batch);
+                    job.imported(batch.size());
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert(batch);
+                job.imported(batch.size());
+            }
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Account import {} failed", job.id(), e);
+            job.fail(e.getMessage());
+            return;
+        }
+        ImportStatus status = job.toStatus();
+        log.info("Imported {} accounts ({} lines rejected) from {} in {} ms", status.imported(), status.rejected(),
+                status.source(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void insert(List<AccountDto> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                (statement, account) -> {
+                    statement.setString(1, account.getAccountHolderName());
+                    statement.setLong(2, account.getBalance());
+                }));
+    }
+
+    private AccountDto parseJson(String line) {
+        try {
+            return accountReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // name,balance where the name may be quoted ("Doe, Jane" with "" for a quote); no line breaks inside fields
+    private static AccountDto parseCsv(String line) {
+        StringBuilder name = new StringBuilder();
+        int i = 0;
+        if (line.startsWith("\"")) {
+            for (i = 1; ; i++) {
+                if (i >= line.length()) {
+                    throw new IllegalArgumentException("Unterminated quoted name");
+                }
+                char c = line.charAt(i);
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        name.append('"');
+                        i++;
+                        continue;
+                    }
+                    i++;
+                    break;
+                }
+                name.append(c);
+            }
+            if (i >= line.length() || line.charAt(i) != ',') {
+                throw new IllegalArgumentException("Expected a comma after the quoted name");
+            }
+        } else {
+            i = line.indexOf(',');
+            if (i < 0) {
+                throw new IllegalArgumentException("Expected account_holder_name,balance");
+            }
+            name.append(line, 0, i);
+        }
+        String balance = line.substring(i + 1).trim();
+        if (balance.indexOf(',') >= 0) {
+            throw new IllegalArgumentException("Expected account_holder_name,balance");
+        }
+        return new AccountDto(null, name.toString(), Money.parse(balance));
+    }
+
+    private static AccountDto validate(AccountDto account) {
+        String name = account.getAccountHolderName();
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("account_holder_name is required");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("account_holder_name is longer than " + MAX_NAME_LENGTH + " characters");
+        }
+        if (account.getBalance() < 0) {
+            throw new IllegalArgumentException("Opening balance must not be negative");
+        }
+        return account;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.replace(" ", "").equalsIgnoreCase(CSV_HEADER);
+    }
+
+    private static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Format.NDJSON;
+        }
+        throw new IllegalArgumentException("Import files must end in .csv, .ndjson or .jsonl");
+    }
+}
@@ -0,0 +1,78 @@
+package com.riksonpereira.banking.importer;
+
+import com.riksonpereira.banking.dto.ImportStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Mutable progress of one import; written by the importing thread, read by status requests
+final class ImportJob {
+
+    // Rejected lines beyond this are only counted
+    private static final int MAX_ERRORS = 100;
+
+    private final long id;
+
+    private final String source;
+
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private final List<ImportStatus.LineError> errors = new ArrayList<>();
+
+    private volatile ImportStatus.State state = ImportStatus.State.RUNNING;
+
+    private volatile long linesRead;
+
+    private volatile long imported;
+
+    private volatile long rejected;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String failure;
+
+    ImportJob(long id, String source) {
+        this.id = id;
+        this.source = source;
+    }
+
+    long id() {
+        return id;
+    }
+
+    boolean isFinished() {
+        return state != ImportStatus.State.RUNNING;
+    }
+
+    void lineRead() {
+        linesRead++;
+    }
+
+    void imported(int rows) {
+        imported += rows;
+    }
+
+    synchronized void reject(long line, String message) {
+        rejected++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportStatus.LineError(line, message));
+        }
+    }
+
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = ImportStatus.State.COMPLETED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = LocalDateTime.now();
+        state = ImportStatus.State.FAILED;
+    }
+
+    synchronized ImportStatus toStatus() {
+        return new ImportStatus(id, source, state, linesRead, imported, rejected, List.copyOf(errors),
+                startedAt, finishedAt, failure);
+    }
+}
@@ -0,0 +1,174 @@
+package com.riksonpereira.banking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal written through a {@link FileChannel} with group fsync. Appenders
+ * copy their record into a shared buffer and wait; one flusher thread writes
+ * whatever has accumulated and forces it to disk once, then releases every
+ * appender it covered, so concurrent callers share a single fsync.
+ */
+class ChannelJournalStore extends JournalStore {
+
+    private static final int BUFFER_SIZE = JournalFormat.RECORD_SIZE * 16_384;
+
+    private final long segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition hasWork = lock.newCondition();
+
+    private final Condition flushed = lock.newCondition();
+
+    private ByteBuffer current = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private ByteBuffer spare = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private long appendedSeq;
+
+    private long durableSeq;
+
+    private IOException failure;
+
+    private FileChannel channel;
+
+    private int segmentIndex;
+
+    private final Thread flusher = new Thread(this::flushLoop, "journal-flusher");
+
+    private volatile boolean running = true;
+
+    ChannelJournalStore(Path directory, Path archiveDirectory, long segmentSize, int firstSegment) throws IOException {
+        super(directory, archiveDirectory);
+        this.segmentSize = segmentSize;
+        this.segmentIndex = firstSegment;
+        this.channel = openSegment(firstSegment);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Returns once the record has been forced to disk
+    @Override
+    long append(byte kind, JournalEntry entry) {
+        lock.lock();
+        try {
+            while (current.remaining() < JournalFormat.RECORD_SIZE) {
+                awaitFlush();
+            }
+            JournalFormat.encode(current, kind, entry);
+            long seq = ++appendedSeq;
+            if (kind == JournalFormat.ENTRY) {
+                track(seq);
+            }
+            hasWork.signal();
+            while (durableSeq < seq) {
+                awaitFlush();
+            }
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    void close() throws InterruptedException, IOException {
+        running = false;
+        lock.lock();
+        try {
+            hasWork.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+        channel.close();
+    }
+
+    private void awaitFlush() {
+        if (failure != null) {
+            throw new UncheckedIOException("Ledger journal is not writable", failure);
+        }
+        try {
+            flushed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger journal", e);
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Ledger journal is not writable", failure);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long target;
+            lock.lock();
+            try {
+                while (appendedSeq == durableSeq) {
+                    if (!running) {
+                        return;
+                    }
+                    hasWork.await(100, TimeUnit.MILLISECONDS);
+                }
+                // Swap buffers so appenders keep filling one while the other is written
+                batch = current;
+                current = spare;
+                spare = batch;
+                target = appendedSeq;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                if (channel.size() >= segmentSize) {
+                    channel.close();
+                    segmentClosed(segmentIndex, target);
+                    segmentIndex++;
+                    channel = openSegment(segmentIndex);
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                batch.clear();
+            }
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    // Nothing acknowledged after this point could be trusted; fail every waiter
+                    failure = error;
+                } else {
+                    durableSeq = target;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (error != null) {
+                return;
+            }
+        }
+    }
+
+    private FileChannel openSegment(int index) throws IOException {
+        return FileChannel.open(JournalFormat.segmentPath(directory, index),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
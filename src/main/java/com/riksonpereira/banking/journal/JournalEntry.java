@@ -0,0 +1,25 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.entity.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ledger row as written to the journal. The id is taken from the
+ * transaction id sequence up front, so the drained row keeps it and replaying
+ * an entry twice is harmless. The counterparty is the destination of a
+ * transfer (null otherwise); it is not stored in the table but lets the
+ * journal alone replay every balance change.
+ */
+public record JournalEntry(long id,
+                           Long accountId,
+                           Long counterpartyId,
+                           long amount,
+                           TransactionType type,
+                           LocalDateTime timestamp) {
+
+    public TransactionDto toDto() {
+        return new TransactionDto(id, accountId, amount, type.name(), timestamp);
+    }
+}
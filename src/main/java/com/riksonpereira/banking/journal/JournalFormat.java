@@ -0,0 +1,122 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.TransactionType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal segments, shared by every {@link JournalStore}.
+ * Records have a fixed size and end with a CRC, so a torn or never-written
+ * record (a zero-filled preallocated tail) ends recovery of its segment.
+ */
+final class JournalFormat {
+
+    static final byte ENTRY = 1;
+
+    static final byte CANCEL = 2;
+
+    // kind, id, account id, counterparty id, amount, type code, timestamp (epoch micros), crc
+    static final int RECORD_SIZE = 1 + 8 + 8 + 8 + 8 + 2 + 8 + 4;
+
+    private JournalFormat() {
+    }
+
+    static void encode(ByteBuffer buffer, byte kind, JournalEntry entry) {
+        int start = buffer.position();
+        LocalDateTime timestamp = entry.timestamp();
+        buffer.put(kind)
+                .putLong(entry.id())
+                .putLong(entry.accountId())
+                .putLong(entry.counterpartyId() == null ? 0 : entry.counterpartyId())
+                .putLong(entry.amount())
+                .putShort(entry.type().getCode())
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private static JournalEntry decode(ByteBuffer record) {
+        long id = record.getLong();
+        long accountId = record.getLong();
+        long counterpartyId = record.getLong();
+        long amount = record.getLong();
+        TransactionType type = TransactionType.fromCode(record.getShort());
+        long micros = record.getLong();
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        return new JournalEntry(id, accountId, counterpartyId == 0 ? null : counterpartyId, amount, type, timestamp);
+    }
+
+    private static boolean isValid(ByteBuffer record) {
+        if (record.get(0) != ENTRY && record.get(0) != CANCEL) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        return (int) crc.getValue() == record.getInt(RECORD_SIZE - 4);
+    }
+
+    static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("ledger-%06d.journal", index));
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("ledger-\\d{6}\\.journal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring("ledger-".length(), name.length() - ".journal".length()));
+    }
+
+    /**
+     * Reads every segment in order and returns the entries that were not
+     * cancelled, stopping each file at its first invalid record.
+     */
+    static List<JournalEntry> recover(List<Path> segments) throws IOException {
+        Map<Long, JournalEntry> entries = new LinkedHashMap<>();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (Path segment : segments) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining()) {
+                        if (in.read(record) < 0) {
+                            break;
+                        }
+                    }
+                    if (record.hasRemaining() || !isValid(record)) {
+                        break;
+                    }
+                    record.flip();
+                    byte kind = record.get();
+                    JournalEntry entry = decode(record);
+                    if (kind == ENTRY) {
+                        entries.put(entry.id(), entry);
+                    } else {
+                        entries.remove(entry.id());
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+}
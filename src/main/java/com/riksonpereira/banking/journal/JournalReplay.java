@@ -0,0 +1,49 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.money.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the net balance change of every account from journal segments
+ * alone, without the database. Pass the archive directory followed by the
+ * live journal directory; segments are replayed in order of their number.
+ */
+public final class JournalReplay {
+
+    private JournalReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        for (String directory : args) {
+            segments.addAll(JournalFormat.segments(Path.of(directory)));
+        }
+        segments.sort(Comparator.comparingInt(JournalFormat::segmentIndex));
+
+        Map<Long, Long> changes = replay(JournalFormat.recover(segments));
+        changes.forEach((accountId, change) -> System.out.println(accountId + "\t" + Money.toString(change)));
+    }
+
+    // Net change per account: deposits add, withdrawals subtract, transfers move between the two accounts
+    static Map<Long, Long> replay(List<JournalEntry> entries) {
+        Map<Long, Long> changes = new TreeMap<>();
+        for (JournalEntry entry : entries) {
+            switch (entry.type()) {
+                case DEPOSIT -> changes.merge(entry.accountId(), entry.amount(), Money::add);
+                case WITHDRAW -> changes.merge(entry.accountId(), -entry.amount(), Money::add);
+                case TRANSFER -> {
+                    changes.merge(entry.accountId(), -entry.amount(), Money::add);
+                    changes.merge(entry.counterpartyId(), entry.amount(), Money::add);
+                }
+            }
+        }
+        return changes;
+    }
+}
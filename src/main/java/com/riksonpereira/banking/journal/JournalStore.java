@@ -0,0 +1,84 @@
+package com.riksonpereira.banking.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Segmented journal storage. Subclasses decide how records reach the disk;
+ * this class tracks which entries are still unresolved (neither drained nor
+ * cancelled) and retires closed segments once nothing in them is needed,
+ * deleting them or moving them to the archive directory.
+ */
+abstract class JournalStore {
+
+    protected final Path directory;
+
+    private final Path archiveDirectory;
+
+    // Sequence numbers of entries not yet drained or cancelled; the smallest bounds what may be retired
+    private final ConcurrentSkipListSet<Long> unresolved = new ConcurrentSkipListSet<>();
+
+    private final Deque<ClosedSegment> closedSegments = new ConcurrentLinkedDeque<>();
+
+    protected JournalStore(Path directory, Path archiveDirectory) {
+        this.directory = directory;
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    /**
+     * Appends a record and returns once the store considers it durable. The
+     * returned sequence number identifies an {@link JournalFormat#ENTRY}
+     * until it is passed to {@link #resolve}.
+     */
+    abstract long append(byte kind, JournalEntry entry);
+
+    abstract void close() throws InterruptedException, IOException;
+
+    // The entry is in the database or was cancelled, so its segment no longer needs it
+    void resolve(long seq) {
+        unresolved.remove(seq);
+        retireResolvedSegments();
+    }
+
+    // Must be called before the entry's sequence number is handed out
+    protected void track(long seq) {
+        unresolved.add(seq);
+    }
+
+    protected void segmentClosed(int index, long lastSeq) {
+        closedSegments.addLast(new ClosedSegment(JournalFormat.segmentPath(directory, index), lastSeq));
+        // Everything in the closed segment may already be resolved
+        retireResolvedSegments();
+    }
+
+    private void retireResolvedSegments() {
+        long watermark = unresolved.isEmpty() ? Long.MAX_VALUE : unresolved.first();
+        ClosedSegment oldest;
+        while ((oldest = closedSegments.peekFirst()) != null && oldest.lastSeq() < watermark) {
+            if (closedSegments.remove(oldest)) {
+                retire(oldest.path());
+            }
+        }
+    }
+
+    private void retire(Path segment) {
+        try {
+            if (archiveDirectory == null) {
+                Files.deleteIfExists(segment);
+            } else {
+                Files.move(segment, archiveDirectory.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record ClosedSegment(Path path, long lastSeq) {
+    }
+}
@@ -0,0 +1,381 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.entity.TransactionType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind path for ledger rows. Instead of inserting into the
+ * {@code transaction} table inside the balance transaction, an entry is
+ * appended to a local journal just before that transaction commits: an
+ * fsync'd file channel, or memory-mapped segments acknowledged at copy
+ * latency (see {@code banking.journal.storage}).
+ * Once the commit succeeds the entry becomes visible through
+ * {@link #pendingFor} and a background drainer batch-inserts it; a rollback
+ * appends a cancel record instead. When the outcome is unknown the entry
+ * counts only if its {@code journal_commits} mark can be read; otherwise it
+ * is left for the next start to decide.
+ * <p>
+ * The journal is written before the database commit, so a crash between the
+ * two can leave an entry for a balance change that never committed. Each
+ * entry's id is therefore also inserted into {@code journal_commits} inside
+ * the balance transaction, and the drainer deletes it together with
+ * inserting the row. On startup only leftover entries whose id is marked
+ * there are inserted again, which is harmless because ids are assigned up
+ * front. Entries neither marked nor drained are cancelled, so archived
+ * segments replay the same way.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+public class LedgerJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerJournal.class);
+
+    private static final String INSERT_SQL = "insert ignore into transaction"
+            + " (id, account_id, amount, transaction_type, timestamp) values (?, ?, ?, ?, ?)";
+
+    private static final String MARK_SQL = "insert into journal_commits (id) values (?)";
+
+    private static final String UNMARK_SQL = "delete from journal_commits where id = ?";
+
+    private static final String MARKED_SQL = "select count(*) from journal_commits where id = ?";
+
+    // Ids per IN list when recovery looks up leftover entries
+    private static final int IN_LIST_SIZE = 500;
+
+    private static final Comparator<TransactionDto> NEWEST_FIRST = Comparator
+            .comparing(TransactionDto::timestamp)
+            .thenComparing(TransactionDto::id)
+            .reversed();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // Looks up marks after a commit of unknown outcome, outside the finished transaction's resources
+    private final TransactionTemplate markLookup;
+
+    private final TransactionIdAllocator idAllocator;
+
+    private final BankingProperties.Journal properties;
+
+    private JournalStore writer;
+
+    // Committed entries not yet drained, per account, for merging into history reads
+    private final ConcurrentHashMap<Long, ConcurrentLinkedDeque<JournalEntry>> pending = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Appended> drainQueue;
+
+    private final Thread drainer = new Thread(this::drain, "journal-drainer");
+
+    private volatile boolean running = true;
+
+    @Autowired
+    public LedgerJournal(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         DataSourceProperties dataSourceProperties,
+                         BankingProperties bankingProperties,
+                         MeterRegistry meterRegistry) {
+        this(jdbcTemplate, transactionManager, new TransactionIdAllocator(dataSourceProperties), bankingProperties,
+                meterRegistry);
+    }
+
+    // Tests pass an allocator that does not reserve ids from the database
+    LedgerJournal(JdbcTemplate jdbcTemplate,
+                  PlatformTransactionManager transactionManager,
+                  TransactionIdAllocator idAllocator,
+                  BankingProperties bankingProperties,
+                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.markLookup = new TransactionTemplate(transactionManager);
+        this.markLookup.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.markLookup.setReadOnly(true);
+        this.idAllocator = idAllocator;
+        this.properties = bankingProperties.getJournal();
+        this.drainQueue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("banking.journal.pending", drainQueue, BlockingQueue::size)
+                .description("Journal entries committed but not yet in the transaction table")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Path directory = properties.getDirectory();
+        Files.createDirectories(directory);
+
+        Path archive = properties.getArchiveDirectory();
+        if (archive != null) {
+            Files.createDirectories(archive);
+        }
+
+        // Replay the tail a previous run left behind before accepting new entries
+        List<Path> segments = JournalFormat.segments(directory);
+        List<JournalEntry> leftover = JournalFormat.recover(segments);
+        Set<Long> marked = existingIds("journal_commits", leftover);
+        List<JournalEntry> committed = leftover.stream().filter((entry) -> marked.contains(entry.id())).toList();
+        if (!committed.isEmpty()) {
+            log.info("Replaying {} ledger journal entries", committed.size());
+            for (int from = 0; from < committed.size(); from += properties.getBatchSize()) {
+                insert(committed.subList(from, Math.min(committed.size(), from + properties.getBatchSize())));
+            }
+        }
+
+        // Keep numbering after the archive too, so archived segments are never overwritten
+        int next = nextSegmentIndex(segments);
+        if (archive != null) {
+            next = Math.max(next, nextSegmentIndex(JournalFormat.segments(archive)));
+        }
+        long segmentSize = properties.getSegmentSize().toBytes();
+        writer = properties.getStorage() == BankingProperties.Journal.Storage.MAPPED
+                ? new MappedJournalStore(directory, archive, segmentSize, properties.getSyncInterval().toNanos(), next)
+                : new ChannelJournalStore(directory, archive, segmentSize, next);
+
+        // Neither marked nor drained: the balance transaction never committed. Cancel it in a later
+        // segment before the old ones are retired, so archived segments replay without it
+        Set<Long> drained = existingIds("transaction", leftover);
+        int uncommitted = 0;
+        for (JournalEntry entry : leftover) {
+            if (!marked.contains(entry.id()) && !drained.contains(entry.id())) {
+                writer.resolve(writer.append(JournalFormat.CANCEL, entry));
+                uncommitted++;
+            }
+        }
+        if (uncommitted > 0) {
+            log.warn("Cancelled {} ledger journal entries whose transaction did not commit", uncommitted);
+        }
+
+        for (Path segment : segments) {
+            if (archive == null) {
+                Files.delete(segment);
+            } else {
+                Files.move(segment, archive.resolve(segment.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        // The drainer keeps going until every committed entry is in the database
+        running = false;
+        drainer.join();
+        writer.close();
+        idAllocator.close();
+    }
+
+    /**
+     * Journals a ledger row for the current database transaction. The append
+     * (and its fsync) happens just before commit; without a transaction it
+     * happens immediately.
+     */
+    public void record(Long accountId, Long counterpartyId, long amount, TransactionType type) {
+        JournalEntry entry = new JournalEntry(idAllocator.next(), accountId, counterpartyId, amount, type,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        // Commits or rolls back with the caller's transaction, telling recovery whether the entry counts
+        jdbcTemplate.update(MARK_SQL, entry.id());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(new Appended(entry, writer.append(JournalFormat.ENTRY, entry)));
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long seq = -1;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                seq = writer.append(JournalFormat.ENTRY, entry);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (seq >= 0) {
+                    completed(new Appended(entry, seq), status);
+                }
+            }
+        });
+    }
+
+    // Committed entries of the account that the drainer has not inserted yet, newest first
+    public List<TransactionDto> pendingFor(Long accountId) {
+        ConcurrentLinkedDeque<JournalEntry> entries = pending.get(accountId);
+        if (entries == null) {
+            return List.of();
+        }
+        List<TransactionDto> dtos = new ArrayList<>();
+        for (JournalEntry entry : entries) {
+            dtos.add(entry.toDto());
+        }
+        dtos.sort(NEWEST_FIRST);
+        return dtos;
+    }
+
+    private static int nextSegmentIndex(List<Path> segments) {
+        return segments.isEmpty() ? 0 : JournalFormat.segmentIndex(segments.get(segments.size() - 1)) + 1;
+    }
+
+    private void completed(Appended appended, int status) {
+        switch (status) {
+            case TransactionSynchronization.STATUS_COMMITTED -> committed(appended);
+            case TransactionSynchronization.STATUS_ROLLED_BACK -> {
+                writer.append(JournalFormat.CANCEL, appended.entry());
+                writer.resolve(appended.seq());
+            }
+            default -> {
+                // The commit may have gone through; only the mark it carried can tell
+                if (isMarked(appended.entry())) {
+                    committed(appended);
+                } else {
+                    // Left unresolved and uncancelled: the next start replays it if the mark shows up after all
+                    log.warn("Outcome of the transaction of ledger journal entry {} is unknown,"
+                            + " leaving it for recovery", appended.entry().id());
+                }
+            }
+        }
+    }
+
+    private boolean isMarked(JournalEntry entry) {
+        try {
+            Integer marks = markLookup.execute(status -> jdbcTemplate.queryForObject(MARKED_SQL, Integer.class, entry.id()));
+            return marks != null && marks > 0;
+        } catch (RuntimeException e) {
+            log.warn("Could not look up the commit mark of ledger journal entry {}", entry.id(), e);
+            return false;
+        }
+    }
+
+    private void committed(Appended appended) {
+        // compute keeps the add atomic with forget() dropping the account's emptied deque. The add comes
+        // first so the drainer always finds the entry to forget
+        pending.compute(appended.entry().accountId(), (id, entries) -> {
+            ConcurrentLinkedDeque<JournalEntry> target = entries == null ? new ConcurrentLinkedDeque<>() : entries;
+            target.add(appended.entry());
+            return target;
+        });
+        // Usually called from afterCompletion, before the committed caller's connection goes back to the
+        // pool: a full queue holds both until the drainer catches up. The entry is already durable, so an
+        // interrupt cannot abandon it here; it is restored once the entry is queued
+        boolean interrupted = false;
+        while (true) {
+            try {
+                drainQueue.put(appended);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        List<Appended> batch = new ArrayList<>(properties.getBatchSize());
+        long pollNanos = properties.getFlushInterval().toNanos();
+        while (running || !drainQueue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Appended first = drainQueue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    drainQueue.drainTo(batch, properties.getBatchSize() - 1);
+                }
+                insert(batch.stream().map(Appended::entry).toList());
+                for (Appended appended : batch) {
+                    forget(appended.entry());
+                    writer.resolve(appended.seq());
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Keep the batch and retry; the entries stay durable in the journal meanwhile
+                log.error("Failed to drain {} journal entries, retrying", batch.size(), e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pollNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // "insert ignore" makes a replay of an already drained entry a no-op; the marks go in the same commit
+    private void insert(List<JournalEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (statement, entry) -> {
+                statement.setLong(1, entry.id());
+                statement.setLong(2, entry.accountId());
+                statement.setLong(3, entry.amount());
+                statement.setShort(4, entry.type().getCode());
+                statement.setTimestamp(5, Timestamp.valueOf(entry.timestamp()));
+            });
+            jdbcTemplate.batchUpdate(UNMARK_SQL, entries, entries.size(),
+                    (statement, entry) -> statement.setLong(1, entry.id()));
+        });
+    }
+
+    // Ids of the entries that have a row in the table
+    private Set<Long> existingIds(String table, List<JournalEntry> entries) {
+        Set<Long> ids = new HashSet<>();
+        for (int from = 0; from < entries.size(); from += IN_LIST_SIZE) {
+            List<JournalEntry> chunk = entries.subList(from, Math.min(entries.size(), from + IN_LIST_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            ids.addAll(jdbcTemplate.queryForList("select id from " + table + " where id in (" + placeholders + ")",
+                    Long.class, chunk.stream().map(JournalEntry::id).toArray()));
+        }
+        return ids;
+    }
+
+    private void forget(JournalEntry entry) {
+        pending.computeIfPresent(entry.accountId(), (id, entries) -> {
+            entries.remove(entry);
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    private record Appended(JournalEntry entry, long seq) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.riksonpereira.banking.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Journal written into memory-mapped, preallocated segment files. An append
+ * is a copy into the mapping and returns at once: the record then survives a
+ * crash of the process, because it already lives in the kernel's page cache.
+ * A sync thread forces the mapping to disk every sync interval, which bounds
+ * what a power loss or kernel crash can take.
+ */
+class MappedJournalStore extends JournalStore {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedJournalStore.class);
+
+    // Whole records only, and a single mapping is limited to 2 GB
+    private final int segmentCapacity;
+
+    private final long syncIntervalNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile MappedByteBuffer mapped;
+
+    private int segmentIndex;
+
+    private long appendedSeq;
+
+    private final Thread syncer = new Thread(this::syncLoop, "journal-sync");
+
+    private volatile boolean running = true;
+
+    MappedJournalStore(Path directory, Path archiveDirectory, long segmentSize, long syncIntervalNanos,
+                       int firstSegment) throws IOException {
+        super(directory, archiveDirectory);
+        long records = Math.max(1, Math.min(segmentSize, Integer.MAX_VALUE) / JournalFormat.RECORD_SIZE);
+        this.segmentCapacity = (int) records * JournalFormat.RECORD_SIZE;
+        this.syncIntervalNanos = syncIntervalNanos;
+        this.segmentIndex = firstSegment;
+        this.mapped = map(firstSegment);
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    @Override
+    long append(byte kind, JournalEntry entry) {
+        lock.lock();
+        try {
+            if (mapped.remaining() < JournalFormat.RECORD_SIZE) {
+                roll();
+            }
+            JournalFormat.encode(mapped, kind, entry);
+            long seq = ++appendedSeq;
+            if (kind == JournalFormat.ENTRY) {
+                track(seq);
+            }
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    void close() throws InterruptedException {
+        running = false;
+        syncer.join();
+        mapped.force();
+    }
+
+    private void roll() {
+        try {
+            // The full segment goes to disk before it may be retired
+            mapped.force();
+            segmentClosed(segmentIndex, appendedSeq);
+            segmentIndex++;
+            mapped = map(segmentIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new ledger journal segment", e);
+        }
+    }
+
+    // Preallocated and zero-filled, so recovery stops at the first record never written
+    private MappedByteBuffer map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(syncIntervalNanos);
+                mapped.force();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to sync the ledger journal", e);
+            }
+        }
+    }
+}
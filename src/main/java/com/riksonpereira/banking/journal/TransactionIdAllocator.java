@@ -0,0 +1,87 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.Transaction;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out {@link Transaction} ids from {@code transaction_seq} without
+ * going through Hibernate. Blocks are reserved exactly like Hibernate's
+ * pooled optimizer does (reading value v owns ids (v - allocationSize, v]),
+ * so ids never collide with rows persisted through JPA.
+ * <p>
+ * Reservations run on a dedicated connection outside the pool. Callers
+ * already hold a pooled connection for their business transaction, so a
+ * reservation that needed a second one could wait forever once every pooled
+ * connection belongs to a caller queued on the lock.
+ */
+class TransactionIdAllocator implements AutoCloseable {
+
+    private final SingleConnectionDataSource dataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Reservations commit on their own connection, independent of the caller's transaction
+    private final TransactionTemplate reservation;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next = 1;
+
+    private long last = 0;
+
+    TransactionIdAllocator(DataSourceProperties dataSourceProperties) {
+        // suppressClose keeps the connection open across reservations; it is only opened on first use
+        this.dataSource = new SingleConnectionDataSource(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                true);
+        this.dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.reservation = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    long next() {
+        lock.lock();
+        try {
+            if (next > last) {
+                reserve();
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reserve() {
+        long size = Transaction.ID_ALLOCATION_SIZE;
+        long value;
+        do {
+            // A value below the block size is the sequence's initial value; its block would reach below 1
+            try {
+                value = reservation.execute(status -> {
+                    Long current = jdbcTemplate.queryForObject("select next_val from transaction_seq for update", Long.class);
+                    jdbcTemplate.update("update transaction_seq set next_val = ? where next_val = ?", current + size, current);
+                    return current;
+                });
+            } catch (DataAccessException e) {
+                // The connection may have been closed by the server; open a new one next time
+                dataSource.resetConnection();
+                throw e;
+            }
+        } while (value < size);
+        next = value - size + 1;
+        last = value;
+    }
+
+    @Override
+    public void close() {
+        dataSource.destroy();
+    }
+}
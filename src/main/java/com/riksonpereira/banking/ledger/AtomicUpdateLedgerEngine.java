@@ -0,0 +1,119 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountException;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.repository.AccountRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies every balance change as a single conditional UPDATE and lets the
+ * affected row count decide success. The database row lock taken by the
+ * UPDATE is the only serialisation, so no JVM locks are needed and the
+ * transaction can run at READ COMMITTED.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "atomic", matchIfMissing = true)
+public class AtomicUpdateLedgerEngine implements LedgerEngine {
+
+    private AccountRepository accountRepository;
+
+    private TransactionRecorder transactionRecorder;
+
+    public AtomicUpdateLedgerEngine(AccountRepository accountRepository,
+                                    TransactionRecorder transactionRecorder) {
+        this.accountRepository = accountRepository;
+        this.transactionRecorder = transactionRecorder;
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountDto deposit(Long id, long amount) {
+        if (accountRepository.credit(id, amount) == 0) {
+            throw AccountNotFoundException.INSTANCE;
+        }
+
+        transactionRecorder.record(id, amount, TransactionType.DEPOSIT);
+
+        return loadAccount(id);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountDto withdraw(Long id, long amount) {
+        if (accountRepository.debit(id, amount) == 0) {
+            throw rejectedDebit(id, InsufficientFundsException.INSUFFICIENT_AMOUNT);
+        }
+
+        transactionRecorder.record(id, amount, TransactionType.WITHDRAW);
+
+        return loadAccount(id);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        if(fromAccountId.equals(toAccountId)){
+            throw SameAccountTransferException.INSTANCE;
+        }
+
+        // Update rows in id order so two opposite transfers cannot deadlock in the database
+        if (fromAccountId < toAccountId) {
+            debitForTransfer(fromAccountId, amount);
+            creditForTransfer(toAccountId, amount);
+        } else {
+            creditForTransfer(toAccountId, amount);
+            debitForTransfer(fromAccountId, amount);
+        }
+
+        transactionRecorder.recordTransfer(fromAccountId, toAccountId, amount);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void delete(Long id) {
+        if (!accountRepository.existsById(id)) {
+            throw AccountNotFoundException.INSTANCE;
+        }
+
+        accountRepository.deleteById(id);
+    }
+
+    @Override
+    public boolean joinsCallerTransaction() {
+        return true;
+    }
+
+    private void debitForTransfer(Long id, long amount) {
+        if (accountRepository.debit(id, amount) == 0) {
+            throw rejectedDebit(id, InsufficientFundsException.INEFFICIENT_BALANCE);
+        }
+    }
+
+    private void creditForTransfer(Long id, long amount) {
+        if (accountRepository.credit(id, amount) == 0) {
+            throw AccountNotFoundException.INSTANCE;
+        }
+    }
+
+    // Only reached on the failure path: a second query tells a missing account from a short balance
+    private AccountException rejectedDebit(Long id, InsufficientFundsException insufficient) {
+        return accountRepository.existsById(id)
+                ? insufficient
+                : AccountNotFoundException.INSTANCE;
+    }
+
+    private AccountDto loadAccount(Long id) {
+        // The UPDATE still holds the row lock, so this read sees our own write; a projection
+        // rather than findById, since an entity loaded earlier in the same transaction would be stale
+        return accountRepository
+                .findDtoById(id)
+                .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+    }
+}
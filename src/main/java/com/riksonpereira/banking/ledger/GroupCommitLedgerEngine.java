@@ -0,0 +1,350 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.money.Money;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group-commit stage in front of {@link AtomicUpdateLedgerEngine}. Concurrent
+ * deposits and withdrawals are collected into batches that are applied in one
+ * database transaction with JDBC batch statements, and each caller is then
+ * completed with its own result. Transfers and deletes go straight to the
+ * atomic engine, whose conditional UPDATEs compose safely with the batches.
+ *
+ * <p>The collection window is adaptive: a committer only lingers for more
+ * requests when its previous batch held more than one, so an idle system
+ * commits immediately and a busy one amortises each commit over many callers.
+ *
+ * <p>A caller waits at most {@code banking.group-commit.submit-timeout} for a
+ * committer to take its operation; one that was never taken is withdrawn and
+ * fails without being applied. Batches run with the same transaction timeout,
+ * so a taken operation is answered within about twice that. Submits are
+ * rejected once shutdown begins.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "banking.group-commit.enabled", havingValue = "true")
+public class GroupCommitLedgerEngine implements LedgerEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitLedgerEngine.class);
+
+    // The flag parameter disables the balance guard for deposits; the version bump
+    // matches the repository's versioned bulk updates
+    private static final String APPLY_SQL =
+            "update accounts set balance = balance + ?, version = version + 1 where id = ? and (? = 0 or balance >= ?)";
+
+    private static final String SELECT_ACCOUNTS_SQL =
+            "select id, account_holder_name, balance from accounts where id in (:ids)";
+
+    private final AtomicUpdateLedgerEngine delegate;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final TransactionRecorder transactionRecorder;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingProperties.GroupCommit properties;
+
+    private final BlockingQueue<PendingOperation> pending;
+
+    private final List<Thread> committers = new ArrayList<>();
+
+    private final DistributionSummary batchSizes;
+
+    private final long submitTimeoutNanos;
+
+    private volatile boolean running = true;
+
+    public GroupCommitLedgerEngine(AtomicUpdateLedgerEngine delegate,
+                                   JdbcTemplate jdbcTemplate,
+                                   NamedParameterJdbcTemplate namedJdbcTemplate,
+                                   TransactionRecorder transactionRecorder,
+                                   TransactionTemplate transactionTemplate,
+                                   BankingProperties bankingProperties,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionRecorder = transactionRecorder;
+        this.properties = bankingProperties.getGroupCommit();
+        this.submitTimeoutNanos = properties.getSubmitTimeout().toNanos();
+        // A copy, so the timeout does not leak into the shared template
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        this.transactionTemplate.setTimeout((int) Math.max(1, properties.getSubmitTimeout().toSeconds()));
+        this.pending = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("banking.group-commit.batch.size")
+                .description("Deposits and withdrawals applied per database commit")
+                .register(meterRegistry);
+        Gauge.builder("banking.group-commit.queued", pending, BlockingQueue::size)
+                .description("Deposits and withdrawals waiting for a committer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < properties.getCommitters(); i++) {
+            Thread committer = new Thread(this::commitLoop, "group-committer-" + i);
+            committer.setDaemon(true);
+            committer.start();
+            committers.add(committer);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread committer : committers) {
+            committer.join();
+        }
+        // Committers drain the queue before exiting; only a submit racing the flag can be left behind
+        PendingOperation stranded;
+        while ((stranded = pending.poll()) != null) {
+            if (stranded.take()) {
+                stranded.result.completeExceptionally(new IllegalStateException("Group commit is shut down"));
+            }
+        }
+    }
+
+    @Override
+    public AccountDto deposit(Long accountId, long amount) {
+        return submit(new PendingOperation(accountId, amount, TransactionType.DEPOSIT));
+    }
+
+    @Override
+    public AccountDto withdraw(Long accountId, long amount) {
+        return submit(new PendingOperation(accountId, amount, TransactionType.WITHDRAW));
+    }
+
+    @Override
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        delegate.transfer(fromAccountId, toAccountId, amount);
+    }
+
+    @Override
+    public void delete(Long accountId) {
+        delegate.delete(accountId);
+    }
+
+    private AccountDto submit(PendingOperation operation) {
+        if (!running) {
+            throw new IllegalStateException("Group commit is shut down");
+        }
+        try {
+            // Waits at most the submit timeout for a free slot; an operation refused here was never queued,
+            // so the caller can retry it safely
+            if (!pending.offer(operation, submitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Timed out queueing for group commit");
+            }
+            try {
+                return operation.result.get(submitTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (operation.take()) {
+                    // No committer took it, so it will never be applied
+                    throw new IllegalStateException("Timed out waiting for group commit", e);
+                }
+                // Its batch is running and bounded by the transaction timeout
+                return operation.result.get(submitTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Outcome of group commit unknown after timeout", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void commitLoop() {
+        long maxWaitNanos = properties.getMaxWait().toNanos();
+        int maxBatchSize = properties.getMaxBatchSize();
+        boolean linger = false;
+        List<PendingOperation> batch = new ArrayList<>(maxBatchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                PendingOperation first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    linger = false;
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, maxBatchSize - 1);
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (linger && batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOperation next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    pending.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                // Callers that gave up withdrew their operation first
+                batch.removeIf((operation) -> !operation.take());
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                commit(batch);
+                linger = batch.size() > 1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOperation> batch) {
+        batchSizes.record(batch.size());
+
+        // A stable sort keeps per-account order and makes concurrent committers lock rows in the same order
+        List<PendingOperation> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparing(PendingOperation::accountId));
+
+        Map<Long, AccountDto> finalState;
+        try {
+            finalState = transactionTemplate.execute(status -> apply(ordered));
+        } catch (RuntimeException e) {
+            // Isolate the failure by replaying each operation in its own transaction
+            log.warn("Group commit of {} operations failed, applying individually", ordered.size(), e);
+            for (PendingOperation operation : ordered) {
+                applyIndividually(operation);
+            }
+            return;
+        }
+
+        // Walk backwards so each caller sees the balance right after its own operation
+        Map<Long, Long> balanceAfter = new HashMap<>();
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            PendingOperation operation = ordered.get(i);
+            if (operation.failure != null) {
+                operation.result.completeExceptionally(operation.failure);
+                continue;
+            }
+            AccountDto account = finalState.get(operation.accountId);
+            long balance = balanceAfter.getOrDefault(operation.accountId, account.getBalance());
+            operation.result.complete(new AccountDto(account.getId(), account.getAccountHolderName(), balance));
+            balanceAfter.put(operation.accountId, Money.subtract(balance, operation.delta()));
+        }
+    }
+
+    private Map<Long, AccountDto> apply(List<PendingOperation> ordered) {
+        int[] updated = jdbcTemplate.batchUpdate(APPLY_SQL, ordered, ordered.size(), (ps, operation) -> {
+            ps.setLong(1, operation.delta());
+            ps.setLong(2, operation.accountId);
+            ps.setInt(3, operation.type == TransactionType.WITHDRAW ? 1 : 0);
+            ps.setLong(4, operation.amount);
+        })[0];
+
+        List<PendingOperation> applied = new ArrayList<>(ordered.size());
+        List<PendingOperation> rejected = new ArrayList<>();
+        Set<Long> touchedIds = new HashSet<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            PendingOperation operation = ordered.get(i);
+            (updated[i] > 0 ? applied : rejected).add(operation);
+            touchedIds.add(operation.accountId);
+        }
+
+        Map<Long, AccountDto> accounts = new HashMap<>();
+        namedJdbcTemplate.query(SELECT_ACCOUNTS_SQL, new MapSqlParameterSource("ids", touchedIds), rs -> {
+            long id = rs.getLong("id");
+            accounts.put(id, new AccountDto(id, rs.getString("account_holder_name"), rs.getLong("balance")));
+        });
+
+        for (PendingOperation operation : rejected) {
+            operation.failure = accounts.containsKey(operation.accountId)
+                    ? InsufficientFundsException.INSUFFICIENT_AMOUNT
+                    : AccountNotFoundException.INSTANCE;
+        }
+
+        // Ids come from the pooled sequence, so these inserts are sent as JDBC batches (or journaled)
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> entries = new ArrayList<>(applied.size());
+        for (PendingOperation operation : applied) {
+            entries.add(new LedgerEntry(operation.accountId, null, operation.amount, operation.type, now));
+        }
+        transactionRecorder.recordAll(entries);
+        return accounts;
+    }
+
+    private void applyIndividually(PendingOperation operation) {
+        try {
+            operation.result.complete(operation.type == TransactionType.DEPOSIT
+                    ? delegate.deposit(operation.accountId, operation.amount)
+                    : delegate.withdraw(operation.accountId, operation.amount));
+        } catch (RuntimeException e) {
+            operation.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingOperation {
+        private final Long accountId;
+        private final long amount;
+        private final TransactionType type;
+        private final CompletableFuture<AccountDto> result = new CompletableFuture<>();
+        // Claimed once, either by the committer applying it or by its caller giving up
+        private final AtomicBoolean taken = new AtomicBoolean();
+        // Set inside the commit when the conditional UPDATE matched no row
+        private RuntimeException failure;
+
+        private PendingOperation(Long accountId, long amount, TransactionType type) {
+            this.accountId = accountId;
+            this.amount = amount;
+            this.type = type;
+        }
+
+        private Long accountId() {
+            return accountId;
+        }
+
+        private boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+
+        private long delta() {
+            return type == TransactionType.DEPOSIT ? amount : -amount;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps balances in memory as long minor units updated with compare-and-set,
+ * so a mutation never waits on the database. Ledger entries are queued and
+ * recorded through the {@link TransactionRecorder}, together with the latest
+ * balance of every account they touched, by a single background writer.
+ * <p>
+ * A mutation takes its queue slot before it changes a balance, so a change
+ * that was applied can always be queued. On shutdown the writer gets
+ * {@code banking.in-memory.shutdown-timeout} to persist what is queued.
+ * <p>
+ * A deleted account stays in the map as a tombstone, so callers still
+ * holding it and loads that raced the delete see it as not found, and its
+ * queued entries are never written.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "in-memory")
+public class InMemoryLedgerEngine implements LedgerEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryLedgerEngine.class);
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRecorder transactionRecorder;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingProperties.InMemory properties;
+
+    private final ConcurrentHashMap<Long, LedgerAccount> accounts = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<LedgerEntry> pending;
+
+    // Free queue slots; taken before a balance changes and returned when the writer dequeues
+    private final Semaphore capacity;
+
+    private final Thread writer = new Thread(this::drain, "ledger-writer");
+
+    private volatile boolean running = true;
+
+    public InMemoryLedgerEngine(AccountRepository accountRepository,
+                                TransactionRecorder transactionRecorder,
+                                TransactionTemplate transactionTemplate,
+                                BankingProperties bankingProperties) {
+        this.accountRepository = accountRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = bankingProperties.getInMemory();
+        this.pending = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.capacity = new Semaphore(properties.getQueueCapacity());
+    }
+
+    @PostConstruct
+    void start() {
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // The writer keeps draining until the queue is empty, unless the database stays unreachable
+        running = false;
+        writer.join(properties.getShutdownTimeout().toMillis());
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join();
+        }
+    }
+
+    @Override
+    public AccountDto deposit(Long id, long amount) {
+        LedgerAccount account = getAccount(id);
+        long balance = applyQueued(new LedgerEntry(id, null, amount, TransactionType.DEPOSIT, LocalDateTime.now()),
+                () -> live(account).balance.accumulateAndGet(amount, Money::add));
+        return account.toDto(balance);
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, long amount) {
+        LedgerAccount account = getAccount(id);
+        long balance = applyQueued(new LedgerEntry(id, null, amount, TransactionType.WITHDRAW, LocalDateTime.now()),
+                () -> debit(live(account), amount, InsufficientFundsException.INSUFFICIENT_AMOUNT));
+        return account.toDto(balance);
+    }
+
+    @Override
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        LedgerAccount fromAccount = getAccount(fromAccountId);
+        LedgerAccount toAccount = getAccount(toAccountId);
+
+        if(fromAccountId.equals(toAccountId)){
+            throw SameAccountTransferException.INSTANCE;
+        }
+
+        applyQueued(new LedgerEntry(fromAccountId, toAccountId, amount, TransactionType.TRANSFER, LocalDateTime.now()), () -> {
+            live(toAccount);
+            debit(live(fromAccount), amount, InsufficientFundsException.INEFFICIENT_BALANCE);
+            return toAccount.balance.accumulateAndGet(amount, Money::add);
+        });
+    }
+
+    @Override
+    public void delete(Long id) {
+        accountRepository
+                .findById(id)
+                .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+        // Tombstone before the row goes, so a load racing this delete cannot cache the account again
+        accounts.compute(id, (key, account) -> {
+            LedgerAccount tombstone = account != null ? account : new LedgerAccount(id, null, 0);
+            tombstone.deleted = true;
+            return tombstone;
+        });
+        accountRepository.deleteById(id);
+    }
+
+    @Override
+    public AccountDto overlay(AccountDto persisted) {
+        LedgerAccount account = accounts.get(persisted.getId());
+        return account == null || account.deleted ? persisted : account.toDto(account.balance.get());
+    }
+
+    private LedgerAccount getAccount(Long id) {
+        LedgerAccount account = accounts.get(id);
+        if (account != null) {
+            return live(account);
+        }
+
+        // Load outside the map so a slow query never blocks other accounts
+        Account entity = accountRepository
+                .findById(id)
+                .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+        LedgerAccount loaded = new LedgerAccount(entity.getId(),
+                entity.getAccountHolderName(),
+                entity.getBalance());
+        // The row may have been read just before a delete that has tombstoned the id since
+        LedgerAccount existing = accounts.putIfAbsent(id, loaded);
+        return live(existing != null ? existing : loaded);
+    }
+
+    private static LedgerAccount live(LedgerAccount account) {
+        if (account.deleted) {
+            throw AccountNotFoundException.INSTANCE;
+        }
+        return account;
+    }
+
+    private boolean isDeleted(Long id) {
+        LedgerAccount account = accounts.get(id);
+        return account != null && account.deleted;
+    }
+
+    private static long debit(LedgerAccount account, long units, InsufficientFundsException insufficient) {
+        long current;
+        do {
+            current = account.balance.get();
+            if (!Money.covers(current, units)) {
+                throw insufficient;
+            }
+        } while (!account.balance.compareAndSet(current, current - units));
+        return current - units;
+    }
+
+    // Queues the entry of a balance change; the slot is taken first, so once the change is made the add cannot fail.
+    // The change re-checks the tombstone of every account it touches, since a delete may have run since getAccount
+    private <T> T applyQueued(LedgerEntry entry, Supplier<T> change) {
+        if (!running) {
+            throw new IllegalStateException("Ledger engine is shut down");
+        }
+        try {
+            // Blocks when the writer falls behind, which throttles callers instead of growing the heap
+            capacity.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger entry", e);
+        }
+        T result;
+        try {
+            result = change.get();
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        pending.add(entry);
+        return result;
+    }
+
+    private void drain() {
+        List<LedgerEntry> batch = new ArrayList<>(properties.getBatchSize());
+        long pollNanos = properties.getFlushInterval().toNanos();
+        while (running || !pending.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    LedgerEntry first = pending.poll(pollNanos, TimeUnit.NANOSECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    pending.drainTo(batch, properties.getBatchSize() - 1);
+                    capacity.release(batch.size());
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abandon(batch);
+                return;
+            } catch (RuntimeException e) {
+                // Keep the batch and retry; callers are throttled by the full queue meanwhile
+                log.error("Failed to persist {} ledger entries, retrying", batch.size(), e);
+                try {
+                    TimeUnit.NANOSECONDS.sleep(pollNanos);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    abandon(batch);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Only reached when stop() gave up waiting; these changes exist in memory alone and are lost
+    private void abandon(List<LedgerEntry> batch) {
+        int lost = batch.size() + pending.size();
+        if (lost > 0) {
+            log.error("Ledger writer stopped with {} entries not persisted", lost);
+        }
+    }
+
+    private void flush(List<LedgerEntry> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Entries of accounts deleted since they were applied have no row left to belong to
+            List<LedgerEntry> live = new ArrayList<>(batch.size());
+            Set<Long> touched = new HashSet<>();
+            for (LedgerEntry entry : batch) {
+                if (isDeleted(entry.accountId())
+                        || (entry.counterpartyId() != null && isDeleted(entry.counterpartyId()))) {
+                    continue;
+                }
+                live.add(entry);
+                touched.add(entry.accountId());
+                if (entry.counterpartyId() != null) {
+                    touched.add(entry.counterpartyId());
+                }
+            }
+            if (!live.isEmpty()) {
+                transactionRecorder.recordAll(live);
+            }
+
+            // The live balance already includes every entry in this batch
+            for (Long id : touched) {
+                LedgerAccount account = accounts.get(id);
+                if (account != null && !account.deleted) {
+                    accountRepository.updateBalance(id, account.balance.get());
+                }
+            }
+        });
+    }
+
+    private static final class LedgerAccount {
+        private final Long id;
+        private final String accountHolderName;
+        private final AtomicLong balance;
+        // Set once by delete; never cleared, ids are not reused
+        private volatile boolean deleted;
+
+        private LedgerAccount(Long id, String accountHolderName, long balance) {
+            this.id = id;
+            this.accountHolderName = accountHolderName;
+            this.balance = new AtomicLong(balance);
+        }
+
+        private AccountDto toDto(long balance) {
+            return new AccountDto(id, accountHolderName, balance);
+        }
+    }
+}
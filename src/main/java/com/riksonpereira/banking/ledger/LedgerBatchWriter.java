@@ -0,0 +1,41 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.entity.Transaction;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Bulk insert path for {@link Transaction} rows. Entities are persisted and
+ * flushed in chunks of the JDBC batch size, so Hibernate sends one batched
+ * statement per chunk and the persistence context never grows beyond it.
+ */
+@Component
+public class LedgerBatchWriter {
+
+    private EntityManager entityManager;
+
+    private int batchSize;
+
+    public LedgerBatchWriter(EntityManager entityManager,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    // Clears the persistence context after each chunk, so callers must not rely on managed entities afterwards
+    @Transactional
+    public void writeAll(Iterable<Transaction> transactions) {
+        int count = 0;
+        for (Transaction transaction : transactions) {
+            entityManager.persist(transaction);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
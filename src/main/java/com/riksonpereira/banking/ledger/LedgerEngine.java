@@ -0,0 +1,35 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.dto.AccountDto;
+
+/**
+ * Applies balance mutations for {@link com.riksonpereira.banking.service.AccountService}.
+ * The active implementation is selected with the {@code banking.engine} property.
+ */
+public interface LedgerEngine {
+
+    AccountDto deposit(Long accountId, long amount);
+
+    AccountDto withdraw(Long accountId, long amount);
+
+    void transfer(Long fromAccountId, Long toAccountId, long amount);
+
+    void delete(Long accountId);
+
+    /**
+     * True when mutations run in the caller's database transaction, if there
+     * is one, and are serialised by row locks alone. Only then can a caller
+     * commit several of them together.
+     */
+    default boolean joinsCallerTransaction() {
+        return false;
+    }
+
+    /**
+     * Lets an engine that holds balances not yet written to the database
+     * replace the persisted view of an account with its live state.
+     */
+    default AccountDto overlay(AccountDto persisted) {
+        return persisted;
+    }
+}
@@ -0,0 +1,27 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ledger row produced by an engine that records in batches. The
+ * counterparty of a transfer is not a column of the table, but the journal
+ * keeps it so balances can be replayed.
+ */
+record LedgerEntry(Long accountId,
+                   Long counterpartyId,
+                   long amount,
+                   TransactionType type,
+                   LocalDateTime timestamp) {
+
+    Transaction toTransaction() {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(amount);
+        transaction.setTransactionType(type);
+        transaction.setTimestamp(timestamp);
+        return transaction;
+    }
+}
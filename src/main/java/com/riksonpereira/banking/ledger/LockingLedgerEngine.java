@@ -0,0 +1,157 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.lock.AccountLocks;
+import com.riksonpereira.banking.mapper.AccountMapper;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.repository.AccountRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Read-modify-write engine: every mutation loads the account entity under an
+ * account lock and saves it back through JPA. Locks are taken before the
+ * database transaction starts and released only after it has committed, so
+ * the next holder always reads the committed balance.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "locking")
+public class LockingLedgerEngine implements LedgerEngine {
+
+    private AccountRepository accountRepository;
+
+    private TransactionRecorder transactionRecorder;
+
+    // Local striped locks, or cluster-wide leases (see banking.locks.mode)
+    private AccountLocks accountLocks;
+
+    private TransactionTemplate repeatableRead;
+
+    private TransactionTemplate serializable;
+
+    public LockingLedgerEngine(AccountRepository accountRepository,
+                               TransactionRecorder transactionRecorder,
+                               AccountLocks accountLocks,
+                               PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.accountLocks = accountLocks;
+        this.repeatableRead = new TransactionTemplate(transactionManager);
+        this.repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.serializable = new TransactionTemplate(transactionManager);
+        this.serializable.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+    }
+
+    @Override
+    public AccountDto deposit(Long id, long amount) {
+        accountLocks.lock(id);
+        try {
+            return repeatableRead.execute(status -> {
+                Account account = accountRepository
+                        .findById(id)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+                long total = Money.add(account.getBalance(), amount);
+                account.setBalance(total);
+                Account savedAccount = accountRepository.save(account);
+
+                transactionRecorder.record(id, amount, TransactionType.DEPOSIT);
+
+                return AccountMapper.mapToAccountDto(savedAccount);
+            });
+        } finally {
+            accountLocks.unlock(id);
+        }
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, long amount) {
+        accountLocks.lock(id);
+        try {
+            return repeatableRead.execute(status -> {
+                Account account = accountRepository
+                        .findById(id)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+                if(!Money.covers(account.getBalance(), amount)){
+                    throw InsufficientFundsException.INSUFFICIENT_AMOUNT;
+                }
+
+                long total = Money.subtract(account.getBalance(), amount);
+                account.setBalance(total);
+                Account savedAccount = accountRepository.save(account);
+
+                transactionRecorder.record(id, amount, TransactionType.WITHDRAW);
+
+                return AccountMapper.mapToAccountDto(savedAccount);
+            });
+        } finally {
+            accountLocks.unlock(id);
+        }
+    }
+
+    @Override
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        // Both locks are acquired in a consistent order to prevent deadlocks
+        accountLocks.lockBoth(fromAccountId, toAccountId);
+        try {
+            serializable.executeWithoutResult(status -> {
+                //Retrieve the account from which we send the amount
+                Account fromAccount = accountRepository
+                        .findById(fromAccountId)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+                //Retrieve the  account to which we send the anount
+                Account toAccount = accountRepository
+                        .findById(toAccountId)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+                //validation
+                if(fromAccountId.equals(toAccountId)){
+                    throw SameAccountTransferException.INSTANCE;
+                }
+                if(!Money.covers(fromAccount.getBalance(), amount)){
+                    throw InsufficientFundsException.INEFFICIENT_BALANCE;
+                }
+
+                //Debit the amount from fromAccount object
+                fromAccount.setBalance(Money.subtract(fromAccount.getBalance(), amount));
+
+                //Credit the amount to toAccount object
+                toAccount.setBalance(Money.add(toAccount.getBalance(), amount));
+
+                accountRepository.save(fromAccount);
+
+                accountRepository.save(toAccount);
+
+                transactionRecorder.recordTransfer(fromAccountId, toAccountId, amount);
+            });
+        } finally {
+            accountLocks.unlockBoth(fromAccountId, toAccountId);
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        accountLocks.lock(id);
+        try {
+            repeatableRead.executeWithoutResult(status -> {
+                accountRepository
+                        .findById(id)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+
+                accountRepository.deleteById(id);
+            });
+        } finally {
+            accountLocks.unlock(id);
+        }
+    }
+}
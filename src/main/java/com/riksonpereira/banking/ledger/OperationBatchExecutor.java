@@ -0,0 +1,151 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountOperation;
+import com.riksonpereira.banking.dto.OperationResult;
+import com.riksonpereira.banking.exception.AccountException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs a list of deposits, withdrawals and transfers through the
+ * {@link LedgerEngine} and reports one result per operation, in order.
+ * <p>
+ * When the engine joins the caller's transaction, each chunk of
+ * {@code banking.operations.chunk-size} operations is one commit. The chunk
+ * first row-locks every account it touches in id order, the same order single
+ * transfers update rows in, so concurrent batches cannot deadlock each other
+ * or single requests. If any operation of a chunk fails, the chunk rolls back
+ * and is redone one operation per transaction to report each outcome. Other
+ * engines commit or queue every operation on their own anyway, so there each
+ * operation simply runs by itself.
+ */
+@Component
+public class OperationBatchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(OperationBatchExecutor.class);
+
+    private final LedgerEngine ledgerEngine;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final int chunkSize;
+
+    public OperationBatchExecutor(LedgerEngine ledgerEngine,
+                                  AccountRepository accountRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  BankingProperties bankingProperties) {
+        this.ledgerEngine = ledgerEngine;
+        this.accountRepository = accountRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.chunkSize = Math.max(1, bankingProperties.getOperations().getChunkSize());
+    }
+
+    public List<OperationResult> execute(List<AccountOperation> operations) {
+        List<OperationResult> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += chunkSize) {
+            List<AccountOperation> chunk = operations.subList(from, Math.min(from + chunkSize, operations.size()));
+            results.addAll(ledgerEngine.joinsCallerTransaction() ? executeChunk(chunk) : executeEach(chunk));
+        }
+        return results;
+    }
+
+    private List<OperationResult> executeChunk(List<AccountOperation> chunk) {
+        try {
+            return chunkTransaction.execute(status -> {
+                Set<Long> accountIds = accountIds(chunk);
+                if (!accountIds.isEmpty()) {
+                    accountRepository.lockAllById(accountIds);
+                }
+                List<OperationResult> results = new ArrayList<>(chunk.size());
+                for (AccountOperation operation : chunk) {
+                    results.add(OperationResult.succeeded(apply(operation)));
+                }
+                return results;
+            });
+        } catch (RuntimeException e) {
+            return executeEach(chunk);
+        }
+    }
+
+    private List<OperationResult> executeEach(List<AccountOperation> chunk) {
+        List<OperationResult> results = new ArrayList<>(chunk.size());
+        for (AccountOperation operation : chunk) {
+            try {
+                results.add(OperationResult.succeeded(apply(operation)));
+            } catch (RuntimeException e) {
+                results.add(failure(e));
+            }
+        }
+        return results;
+    }
+
+    // The new account state for deposits and withdrawals, null for transfers
+    private AccountDto apply(AccountOperation operation) {
+        if (operation.type() == null || operation.accountId() == null) {
+            throw new IllegalArgumentException("type and accountId are required");
+        }
+        return switch (operation.type()) {
+            case DEPOSIT -> ledgerEngine.deposit(operation.accountId(), operation.amount());
+            case WITHDRAW -> ledgerEngine.withdraw(operation.accountId(), operation.amount());
+            case TRANSFER -> {
+                if (operation.toAccountId() == null) {
+                    throw new IllegalArgumentException("toAccountId is required for a transfer");
+                }
+                ledgerEngine.transfer(operation.accountId(), operation.toAccountId(), operation.amount());
+                yield null;
+            }
+        };
+    }
+
+    private static Set<Long> accountIds(List<AccountOperation> chunk) {
+        Set<Long> accountIds = new TreeSet<>();
+        for (AccountOperation operation : chunk) {
+            if (operation.accountId() != null) {
+                accountIds.add(operation.accountId());
+            }
+            if (operation.type() == AccountOperation.Type.TRANSFER && operation.toAccountId() != null) {
+                accountIds.add(operation.toAccountId());
+            }
+        }
+        return accountIds;
+    }
+
+    // Same error codes and messages as GlobalExceptionHandler
+    private static OperationResult failure(RuntimeException e) {
+        if (e instanceof InsufficientFundsException) {
+            return OperationResult.failed("INSUFFICIENT_FUNDS", e.getMessage());
+        }
+        if (e instanceof SameAccountTransferException) {
+            return OperationResult.failed("INVALID_TRANSFER", e.getMessage());
+        }
+        if (e instanceof AccountException) {
+            return OperationResult.failed("ACCOUNT_NOT_FOUND", e.getMessage());
+        }
+        if (e instanceof IllegalArgumentException) {
+            return OperationResult.failed("INVALID_REQUEST", e.getMessage());
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return OperationResult.failed("CONCURRENT_UPDATE", "Account was modified concurrently, please retry");
+        }
+        log.warn("Operation of a batch failed", e);
+        return OperationResult.failed("CUSTOM_INTERNAL_SERVER_ERROR", e.getMessage());
+    }
+}
@@ -0,0 +1,126 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.mapper.AccountMapper;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.repository.AccountRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Read-modify-write engine without locks. Each operation runs at READ
+ * COMMITTED and relies on the {@code @Version} column of {@link Account} to
+ * reject a write whose rows changed since they were read; the whole
+ * transaction is then retried by {@link OptimisticRetry}. Because the check
+ * happens in the database, this is safe across several application instances.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "optimistic")
+public class OptimisticLedgerEngine implements LedgerEngine {
+
+    private AccountRepository accountRepository;
+
+    private TransactionRecorder transactionRecorder;
+
+    private OptimisticRetry optimisticRetry;
+
+    private TransactionTemplate transactionTemplate;
+
+    public OptimisticLedgerEngine(AccountRepository accountRepository,
+                                  TransactionRecorder transactionRecorder,
+                                  OptimisticRetry optimisticRetry,
+                                  PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.optimisticRetry = optimisticRetry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @Override
+    public AccountDto deposit(Long id, long amount) {
+        return inTransaction(() -> {
+            Account account = loadAccount(id);
+
+            account.setBalance(Money.add(account.getBalance(), amount));
+            Account savedAccount = accountRepository.saveAndFlush(account);
+
+            transactionRecorder.record(id, amount, TransactionType.DEPOSIT);
+
+            return AccountMapper.mapToAccountDto(savedAccount);
+        });
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, long amount) {
+        return inTransaction(() -> {
+            Account account = loadAccount(id);
+
+            if(!Money.covers(account.getBalance(), amount)){
+                throw InsufficientFundsException.INSUFFICIENT_AMOUNT;
+            }
+
+            account.setBalance(Money.subtract(account.getBalance(), amount));
+            Account savedAccount = accountRepository.saveAndFlush(account);
+
+            transactionRecorder.record(id, amount, TransactionType.WITHDRAW);
+
+            return AccountMapper.mapToAccountDto(savedAccount);
+        });
+    }
+
+    @Override
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        if(fromAccountId.equals(toAccountId)){
+            throw SameAccountTransferException.INSTANCE;
+        }
+
+        inTransaction(() -> {
+            Account fromAccount = loadAccount(fromAccountId);
+            Account toAccount = loadAccount(toAccountId);
+
+            if(!Money.covers(fromAccount.getBalance(), amount)){
+                throw InsufficientFundsException.INEFFICIENT_BALANCE;
+            }
+
+            fromAccount.setBalance(Money.subtract(fromAccount.getBalance(), amount));
+            toAccount.setBalance(Money.add(toAccount.getBalance(), amount));
+
+            // Flushing both versioned UPDATEs here turns a lost race into a retry
+            accountRepository.saveAllAndFlush(List.of(fromAccount, toAccount));
+
+            transactionRecorder.recordTransfer(fromAccountId, toAccountId, amount);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Long id) {
+        inTransaction(() -> {
+            // The versioned DELETE fails if a concurrent write got in first
+            accountRepository.delete(loadAccount(id));
+            return null;
+        });
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return optimisticRetry.run(() -> transactionTemplate.execute(status -> work.get()));
+    }
+
+    private Account loadAccount(Long id) {
+        return accountRepository
+                .findById(id)
+                .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a whole database transaction when it loses a version check or a
+ * lock conflict, sleeping for a jittered, exponentially growing backoff
+ * between attempts so colliding writers spread out.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final Counter retries;
+
+    private final Counter aborts;
+
+    public OptimisticRetry(BankingProperties bankingProperties, MeterRegistry meterRegistry) {
+        BankingProperties.Optimistic properties = bankingProperties.getOptimistic();
+        this.maxAttempts = properties.getMaxAttempts();
+        this.initialBackoffNanos = properties.getInitialBackoff().toNanos();
+        this.maxBackoffNanos = properties.getMaxBackoff().toNanos();
+        this.retries = Counter.builder("banking.optimistic.retries")
+                .description("Transactions re-run after a version or lock conflict")
+                .register(meterRegistry);
+        this.aborts = Counter.builder("banking.optimistic.aborts")
+                .description("Operations that still conflicted after the last attempt")
+                .register(meterRegistry);
+    }
+
+    // The action must start and commit its own transaction so every attempt sees fresh rows
+    public <T> T run(Supplier<T> action) {
+        long backoffNanos = initialBackoffNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    aborts.increment();
+                    throw e;
+                }
+                retries.increment();
+                sleep(ThreadLocalRandom.current().nextLong(backoffNanos + 1));
+                backoffNanos = Math.min(backoffNanos * 2, maxBackoffNanos);
+            }
+        }
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off", e);
+        }
+    }
+}
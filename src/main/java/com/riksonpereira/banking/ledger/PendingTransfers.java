@@ -0,0 +1,65 @@
+package com.riksonpereira.banking.ledger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Durable intents of cross-shard transfers in {@code pending_transfers}. A
+ * row is opened in the transaction that debits the source account and closed
+ * in the one that credits the destination or refunds the source, so an open
+ * row always means money that left one account and reached neither. Every
+ * statement joins the caller's transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "sharded")
+class PendingTransfers {
+
+    private static final String OPEN_SQL = "insert into pending_transfers (from_account_id, to_account_id, amount) values (?, ?, ?)";
+
+    private static final String CLOSE_SQL = "delete from pending_transfers where id = ?";
+
+    private static final String FIND_ALL_SQL = "select id, from_account_id, to_account_id, amount from pending_transfers order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    PendingTransfers(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    Transfer open(Long fromAccountId, Long toAccountId, long amount) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(OPEN_SQL, Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, fromAccountId);
+            statement.setLong(2, toAccountId);
+            statement.setLong(3, amount);
+            return statement;
+        }, keyHolder);
+        return new Transfer(keyHolder.getKey().longValue(), fromAccountId, toAccountId, amount);
+    }
+
+    // Fails, rolling the caller back, if the credit or refund of this transfer already committed
+    void close(Transfer transfer) {
+        if (jdbcTemplate.update(CLOSE_SQL, transfer.id()) != 1) {
+            throw new IllegalStateException("Pending transfer " + transfer.id() + " is already closed");
+        }
+    }
+
+    // Oldest first
+    List<Transfer> findAll() {
+        return jdbcTemplate.query(FIND_ALL_SQL, (rs, rowNum) -> new Transfer(rs.getLong("id"),
+                rs.getLong("from_account_id"),
+                rs.getLong("to_account_id"),
+                rs.getLong("amount")));
+    }
+
+    record Transfer(long id, Long fromAccountId, Long toAccountId, long amount) {
+    }
+}
@@ -0,0 +1,320 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.mapper.AccountMapper;
+import com.riksonpereira.banking.money.Money;
+import com.riksonpereira.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer engine: account ids are hashed onto a fixed set of shards,
+ * each drained by one thread that owns its accounts exclusively. Mutations of
+ * one account therefore run one after another without any lock, and accounts
+ * on different shards proceed in parallel.
+ * <p>
+ * A transfer within one shard is a single task. Across shards it runs in two
+ * steps: the source shard debits and opens a {@link PendingTransfers} row in
+ * the same commit, then the destination shard credits, records the transfer
+ * and closes the row; if the credit fails the source shard refunds the debit
+ * and closes the row. The calling thread coordinates the steps, so a shard
+ * never waits on another shard. Rows left open by a crash or a failed refund
+ * are completed, or refunded, on the next start. Only one instance may use this engine against a database,
+ * since shard ownership is not shared between JVMs.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine", havingValue = "sharded")
+public class ShardedLedgerEngine implements LedgerEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedLedgerEngine.class);
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRecorder transactionRecorder;
+
+    private final PendingTransfers pendingTransfers;
+
+    // Each task commits on its own; the shard thread is the only writer of its rows
+    private final TransactionTemplate readCommitted;
+
+    private final Shard[] shards;
+
+    private final Counter refundFailures;
+
+    public ShardedLedgerEngine(AccountRepository accountRepository,
+                               TransactionRecorder transactionRecorder,
+                               PendingTransfers pendingTransfers,
+                               PlatformTransactionManager transactionManager,
+                               BankingProperties bankingProperties,
+                               MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRecorder = transactionRecorder;
+        this.pendingTransfers = pendingTransfers;
+        this.readCommitted = new TransactionTemplate(transactionManager);
+        this.readCommitted.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        BankingProperties.Sharded properties = bankingProperties.getSharded();
+        this.shards = new Shard[Math.max(1, properties.getShards())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard("ledger-shard-" + i, properties.getQueueCapacity());
+        }
+        Gauge.builder("banking.shards.queued", this, ShardedLedgerEngine::queuedTasks)
+                .description("Tasks waiting for a shard thread")
+                .register(meterRegistry);
+        this.refundFailures = Counter.builder("banking.shards.refund.failures")
+                .description("Cross-shard transfers whose credit and refund both failed, left open until the next start")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+        recoverPendingTransfers();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Every shard finishes the tasks already queued before its thread exits
+        for (Shard shard : shards) {
+            shard.running = false;
+        }
+        for (Shard shard : shards) {
+            shard.thread.join();
+        }
+    }
+
+    @Override
+    public AccountDto deposit(Long id, long amount) {
+        return shardOf(id).call(() -> readCommitted.execute(status -> {
+            Account account = findAccount(id);
+            account.setBalance(Money.add(account.getBalance(), amount));
+            Account savedAccount = accountRepository.save(account);
+
+            transactionRecorder.record(id, amount, TransactionType.DEPOSIT);
+
+            return AccountMapper.mapToAccountDto(savedAccount);
+        }));
+    }
+
+    @Override
+    public AccountDto withdraw(Long id, long amount) {
+        return shardOf(id).call(() -> readCommitted.execute(status -> {
+            Account account = findAccount(id);
+            if(!Money.covers(account.getBalance(), amount)){
+                throw InsufficientFundsException.INSUFFICIENT_AMOUNT;
+            }
+            account.setBalance(Money.subtract(account.getBalance(), amount));
+            Account savedAccount = accountRepository.save(account);
+
+            transactionRecorder.record(id, amount, TransactionType.WITHDRAW);
+
+            return AccountMapper.mapToAccountDto(savedAccount);
+        }));
+    }
+
+    @Override
+    public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+        Shard source = shardOf(fromAccountId);
+        Shard destination = shardOf(toAccountId);
+
+        if (source == destination) {
+            source.call(() -> readCommitted.execute(status -> {
+                Account fromAccount = findAccount(fromAccountId);
+                Account toAccount = findAccount(toAccountId);
+                if(fromAccountId.equals(toAccountId)){
+                    throw SameAccountTransferException.INSTANCE;
+                }
+                debit(fromAccount, amount);
+                toAccount.setBalance(Money.add(toAccount.getBalance(), amount));
+                accountRepository.save(toAccount);
+
+                transactionRecorder.recordTransfer(fromAccountId, toAccountId, amount);
+                return null;
+            }));
+            return;
+        }
+
+        // Step one: the source shard validates both ends, takes the money and records the intent
+        PendingTransfers.Transfer transfer = source.call(() -> readCommitted.execute(status -> {
+            Account fromAccount = findAccount(fromAccountId);
+            if (!accountRepository.existsById(toAccountId)) {
+                throw AccountNotFoundException.INSTANCE;
+            }
+            debit(fromAccount, amount);
+            return pendingTransfers.open(fromAccountId, toAccountId, amount);
+        }));
+
+        try {
+            credit(transfer);
+        } catch (RuntimeException e) {
+            // The destination vanished or failed; give the money back on the owning shard
+            refund(transfer);
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(Long id) {
+        shardOf(id).call(() -> readCommitted.execute(status -> {
+            findAccount(id);
+            accountRepository.deleteById(id);
+            return null;
+        }));
+    }
+
+    private Account findAccount(Long id) {
+        return accountRepository
+                .findById(id)
+                .orElseThrow(() -> AccountNotFoundException.INSTANCE);
+    }
+
+    // Step two: the destination shard credits, records the transfer and closes the intent
+    private void credit(PendingTransfers.Transfer transfer) {
+        shardOf(transfer.toAccountId()).call(() -> readCommitted.execute(status -> {
+            Account toAccount = findAccount(transfer.toAccountId());
+            toAccount.setBalance(Money.add(toAccount.getBalance(), transfer.amount()));
+            accountRepository.save(toAccount);
+
+            transactionRecorder.recordTransfer(transfer.fromAccountId(), transfer.toAccountId(), transfer.amount());
+            pendingTransfers.close(transfer);
+            return null;
+        }));
+    }
+
+    // A failed refund leaves the intent open, so the money is still accounted for and the next start retries
+    private void refund(PendingTransfers.Transfer transfer) {
+        try {
+            shardOf(transfer.fromAccountId()).call(() -> readCommitted.execute(status -> {
+                Account fromAccount = findAccount(transfer.fromAccountId());
+                fromAccount.setBalance(Money.add(fromAccount.getBalance(), transfer.amount()));
+                accountRepository.save(fromAccount);
+
+                pendingTransfers.close(transfer);
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            refundFailures.increment();
+            log.error("Refund of pending transfer {} ({} from account {} to account {}) failed; left open until the next start",
+                    transfer.id(), Money.toString(transfer.amount()), transfer.fromAccountId(), transfer.toAccountId(), e);
+        }
+    }
+
+    // Finishes the transfers a previous run debited but neither credited nor refunded
+    private void recoverPendingTransfers() {
+        List<PendingTransfers.Transfer> open = pendingTransfers.findAll();
+        if (open.isEmpty()) {
+            return;
+        }
+        log.warn("Recovering {} pending cross-shard transfers", open.size());
+        for (PendingTransfers.Transfer transfer : open) {
+            try {
+                credit(transfer);
+            } catch (RuntimeException e) {
+                log.warn("Pending transfer {} cannot be credited to account {}, refunding",
+                        transfer.id(), transfer.toAccountId(), e);
+                refund(transfer);
+            }
+        }
+    }
+
+    private void debit(Account account, long amount) {
+        if(!Money.covers(account.getBalance(), amount)){
+            throw InsufficientFundsException.INEFFICIENT_BALANCE;
+        }
+        account.setBalance(Money.subtract(account.getBalance(), amount));
+        accountRepository.save(account);
+    }
+
+    private Shard shardOf(Long accountId) {
+        return shards[shardIndex(accountId, shards.length)];
+    }
+
+    static int shardIndex(Long accountId, int shardCount) {
+        // Same spreading as the lock table, so sequential ids land on different shards
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (h ^ (h >>> 32)), shardCount);
+    }
+
+    private double queuedTasks() {
+        int queued = 0;
+        for (Shard shard : shards) {
+            queued += shard.tasks.size();
+        }
+        return queued;
+    }
+
+    private static final class Shard {
+        private final BlockingQueue<FutureTask<?>> tasks;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Shard(String name, int queueCapacity) {
+            this.tasks = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        private <T> T call(Callable<T> action) {
+            if (Thread.currentThread() == thread) {
+                throw new IllegalStateException("A shard must not wait on itself");
+            }
+            FutureTask<T> task = new FutureTask<>(action);
+            try {
+                // Each shard queues at most banking.sharded.queue-capacity tasks; a full shard only holds
+                // up callers of its own accounts
+                tasks.put(task);
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + thread.getName(), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private void run() {
+            while (running || !tasks.isEmpty()) {
+                try {
+                    FutureTask<?> task = tasks.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        // FutureTask captures the task's own failure for the caller
+                        task.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Unexpected failure on {}", thread.getName(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.journal.LedgerJournal;
+import com.riksonpereira.banking.repository.TransactionRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the audit {@link Transaction} row for a balance mutation, in the
+ * caller's database transaction. With {@code banking.journal.enabled} the row
+ * goes to the {@link LedgerJournal} instead and reaches the table later.
+ */
+@Component
+public class TransactionRecorder {
+
+    private TransactionRepository transactionRepository;
+
+    private LedgerBatchWriter ledgerBatchWriter;
+
+    // Null unless write-behind journaling is enabled
+    private LedgerJournal ledgerJournal;
+
+    public TransactionRecorder(TransactionRepository transactionRepository,
+                               LedgerBatchWriter ledgerBatchWriter,
+                               ObjectProvider<LedgerJournal> ledgerJournal) {
+        this.transactionRepository = transactionRepository;
+        this.ledgerBatchWriter = ledgerBatchWriter;
+        this.ledgerJournal = ledgerJournal.getIfAvailable();
+    }
+
+    public void record(Long accountId, long amount, TransactionType type) {
+        record(accountId, null, amount, type);
+    }
+
+    // The table keeps only the source account; the journal also keeps the destination so it can replay balances
+    public void recordTransfer(Long fromAccountId, Long toAccountId, long amount) {
+        record(fromAccountId, toAccountId, amount, TransactionType.TRANSFER);
+    }
+
+    // Rows of a batched write; the table path sends them as JDBC batches
+    void recordAll(List<LedgerEntry> entries) {
+        if (ledgerJournal == null) {
+            ledgerBatchWriter.writeAll(entries.stream().map(LedgerEntry::toTransaction).toList());
+            return;
+        }
+        for (LedgerEntry entry : entries) {
+            ledgerJournal.record(entry.accountId(), entry.counterpartyId(), entry.amount(), entry.type());
+        }
+    }
+
+    private void record(Long accountId, Long counterpartyId, long amount, TransactionType type) {
+        if (ledgerJournal != null) {
+            ledgerJournal.record(accountId, counterpartyId, amount, type);
+            return;
+        }
+
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setAmount(amount);
+        transaction.setTransactionType(type);
+        transaction.setTimestamp(LocalDateTime.now());
+
+        transactionRepository.save(transaction);
+    }
+}
@@ -0,0 +1,17 @@
+package com.riksonpereira.banking.lock;
+
+/**
+ * Mutual exclusion per account for engines that read, modify and write
+ * balances. Implementations are selected with {@code banking.locks.mode}.
+ */
+public interface AccountLocks {
+
+    void lock(Long accountId);
+
+    void unlock(Long accountId);
+
+    // Acquires both accounts in a globally consistent order, so opposite transfers cannot deadlock
+    void lockBoth(Long firstAccountId, Long secondAccountId);
+
+    void unlockBoth(Long firstAccountId, Long secondAccountId);
+}
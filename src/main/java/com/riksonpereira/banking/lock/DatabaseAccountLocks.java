@@ -0,0 +1,181 @@
+package com.riksonpereira.banking.lock;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account locks that hold across every instance sharing the database. Each
+ * lock is a lease row in {@code account_locks} naming the owning node and an
+ * expiry computed from the database clock, so a crashed node's leases lapse
+ * on their own and node clock skew does not matter.
+ * <p>
+ * The local {@link StripedLockTable} is always taken first: threads of the
+ * same node queue in memory and only one of them at a time talks to the
+ * database for a given account. Transfers take their two leases in account
+ * id order on every node, so opposite transfers cannot deadlock across the
+ * cluster either.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "banking.locks.mode", havingValue = "database")
+public class DatabaseAccountLocks implements AccountLocks {
+
+    // Takes over the row only if the previous lease has expired; MySQL applies
+    // the assignments left to right, so expires_at sees the new owner
+    private static final String ACQUIRE_SQL = """
+            insert into account_locks (account_id, owner, expires_at)
+            values (?, ?, now(6) + interval ? microsecond)
+            on duplicate key update
+                owner = if(expires_at < now(6), values(owner), owner),
+                expires_at = if(owner = values(owner), values(expires_at), expires_at)
+            """;
+
+    private static final String OWNER_SQL = "select owner from account_locks where account_id = ?";
+
+    private static final String RELEASE_SQL = "delete from account_locks where account_id = ? and owner = ?";
+
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final StripedLockTable localLocks;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Lease statements commit on their own, even when called inside a business transaction
+    private final TransactionTemplate leaseTransaction;
+
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private final long leaseMicros;
+
+    private final long acquireTimeoutNanos;
+
+    private final Counter leaseRetries;
+
+    private final Timer leaseWait;
+
+    public DatabaseAccountLocks(StripedLockTable localLocks,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                BankingProperties bankingProperties,
+                                MeterRegistry meterRegistry) {
+        this.localLocks = localLocks;
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        BankingProperties.Locks properties = bankingProperties.getLocks();
+        this.leaseMicros = TimeUnit.NANOSECONDS.toMicros(properties.getLeaseDuration().toNanos());
+        this.acquireTimeoutNanos = properties.getAcquireTimeout().toNanos();
+        this.leaseRetries = Counter.builder("banking.locks.lease.retries")
+                .description("Lease attempts that found the account leased by another node")
+                .register(meterRegistry);
+        this.leaseWait = Timer.builder("banking.locks.lease.wait")
+                .description("Time spent acquiring a database lease")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void lock(Long accountId) {
+        localLocks.lock(accountId);
+        try {
+            acquireLease(accountId);
+        } catch (RuntimeException e) {
+            localLocks.unlock(accountId);
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlock(Long accountId) {
+        try {
+            releaseLease(accountId);
+        } finally {
+            localLocks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public void lockBoth(Long firstAccountId, Long secondAccountId) {
+        localLocks.lockBoth(firstAccountId, secondAccountId);
+        try {
+            if (firstAccountId.equals(secondAccountId)) {
+                acquireLease(firstAccountId);
+                return;
+            }
+            Long lower = Math.min(firstAccountId, secondAccountId);
+            Long higher = Math.max(firstAccountId, secondAccountId);
+            acquireLease(lower);
+            try {
+                acquireLease(higher);
+            } catch (RuntimeException e) {
+                releaseLease(lower);
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            localLocks.unlockBoth(firstAccountId, secondAccountId);
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlockBoth(Long firstAccountId, Long secondAccountId) {
+        try {
+            releaseLease(firstAccountId);
+            if (!firstAccountId.equals(secondAccountId)) {
+                releaseLease(secondAccountId);
+            }
+        } finally {
+            localLocks.unlockBoth(firstAccountId, secondAccountId);
+        }
+    }
+
+    private void acquireLease(Long accountId) {
+        long start = System.nanoTime();
+        long backoffNanos = INITIAL_BACKOFF_NANOS;
+        while (!tryLease(accountId)) {
+            if (System.nanoTime() - start >= acquireTimeoutNanos) {
+                throw new CannotAcquireLockException("Account " + accountId + " is locked by another instance");
+            }
+            leaseRetries.increment();
+            sleep(ThreadLocalRandom.current().nextLong(backoffNanos + 1));
+            backoffNanos = Math.min(backoffNanos * 2, MAX_BACKOFF_NANOS);
+        }
+        leaseWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean tryLease(Long accountId) {
+        return Boolean.TRUE.equals(leaseTransaction.execute(status -> {
+            jdbcTemplate.update(ACQUIRE_SQL, accountId, owner, leaseMicros);
+            return owner.equals(jdbcTemplate.queryForObject(OWNER_SQL, String.class, accountId));
+        }));
+    }
+
+    private void releaseLease(Long accountId) {
+        leaseTransaction.executeWithoutResult(status -> jdbcTemplate.update(RELEASE_SQL, accountId, owner));
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for an account lease", e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.riksonpereira.banking.lock;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size table of locks shared by all accounts. An account id is hashed
+ * onto one of the stripes, so memory stays constant no matter how many
+ * accounts are touched; two accounts may share a stripe. Only serialises
+ * callers inside this JVM; {@link DatabaseAccountLocks} uses it as the local
+ * layer in front of cluster-wide leases.
+ */
+@Component
+public class StripedLockTable implements AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    private final int mask;
+
+    private final Counter contended;
+
+    private final Timer waitTime;
+
+    public StripedLockTable(BankingProperties bankingProperties, MeterRegistry meterRegistry) {
+        // Round up to a power of two so the stripe index is a mask rather than a modulo
+        int requested = bankingProperties.getLocks().getStripes();
+        int size = requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+
+        this.contended = Counter.builder("banking.locks.contended")
+                .description("Lock acquisitions that found the stripe already held")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("banking.locks.wait")
+                .description("Time spent waiting for a contended stripe")
+                .register(meterRegistry);
+        Gauge.builder("banking.locks.stripes", stripes, s -> s.length)
+                .register(meterRegistry);
+        Gauge.builder("banking.locks.queued", this, StripedLockTable::queuedThreads)
+                .description("Threads currently waiting on any stripe")
+                .register(meterRegistry);
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public void lock(Long accountId) {
+        acquire(stripes[indexOf(accountId)]);
+    }
+
+    @Override
+    public void unlock(Long accountId) {
+        stripes[indexOf(accountId)].unlock();
+    }
+
+    /**
+     * Locks the stripes of both accounts in index order, so two callers
+     * locking the same pair in opposite directions cannot deadlock. A pair
+     * that collides on one stripe takes it only once.
+     */
+    @Override
+    public void lockBoth(Long firstAccountId, Long secondAccountId) {
+        int first = indexOf(firstAccountId);
+        int second = indexOf(secondAccountId);
+        acquire(stripes[Math.min(first, second)]);
+        if (first != second) {
+            acquire(stripes[Math.max(first, second)]);
+        }
+    }
+
+    @Override
+    public void unlockBoth(Long firstAccountId, Long secondAccountId) {
+        int first = indexOf(firstAccountId);
+        int second = indexOf(secondAccountId);
+        if (first != second) {
+            stripes[Math.max(first, second)].unlock();
+        }
+        stripes[Math.min(first, second)].unlock();
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        contended.increment();
+        long start = System.nanoTime();
+        lock.lock();
+        waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private int indexOf(Long accountId) {
+        // Spread the id bits so sequential ids do not cluster on neighbouring stripes
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private double queuedThreads() {
+        int queued = 0;
+        for (ReentrantLock stripe : stripes) {
+            queued += stripe.getQueueLength();
+        }
+        return queued;
+    }
+}
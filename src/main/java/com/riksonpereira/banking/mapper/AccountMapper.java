@@ -9,7 +9,8 @@ public class AccountMapper {
         Account account = new Account(
                 accountDto.getId(),
                 accountDto.getAccountHolderName(),
-                accountDto.getBalance()
+                accountDto.getBalance(),
+                null
         );
 
         return account;
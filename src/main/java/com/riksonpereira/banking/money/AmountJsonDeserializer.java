@@ -0,0 +1,19 @@
+package com.riksonpereira.banking.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+// Reads the amount of a deposit, withdrawal or transfer; unlike a balance it must not be negative
+public class AmountJsonDeserializer extends MoneyJsonDeserializer {
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        Long amount = super.deserialize(parser, context);
+        if (amount != null && amount < 0) {
+            return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), "Amount must not be negative");
+        }
+        return amount;
+    }
+}
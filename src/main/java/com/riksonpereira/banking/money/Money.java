@@ -0,0 +1,129 @@
+package com.riksonpereira.banking.money;
+
+/**
+ * Fixed-point money held as a {@code long} count of minor units (cents).
+ * Arithmetic and comparison work on primitives only, so the balance hot path
+ * never allocates; parsing and formatting go through char arrays rather than
+ * {@code BigDecimal} or {@code double}.
+ */
+public final class Money {
+
+    // Number of decimal places carried by the minor unit
+    public static final int SCALE = 2;
+
+    public static final long MINOR_UNITS_PER_UNIT = 100;
+
+    // Sign, 19 digits and the decimal point
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private Money() {
+    }
+
+    // Throws ArithmeticException instead of silently wrapping on overflow
+    public static long add(long augend, long addend) {
+        return Math.addExact(augend, addend);
+    }
+
+    public static long subtract(long minuend, long subtrahend) {
+        return Math.subtractExact(minuend, subtrahend);
+    }
+
+    public static boolean covers(long balance, long amount) {
+        return balance >= amount;
+    }
+
+    public static long ofUnits(long units) {
+        return Math.multiplyExact(units, MINOR_UNITS_PER_UNIT);
+    }
+
+    public static long parse(String text) {
+        return parse(text.toCharArray(), 0, text.length());
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 12}, {@code -3.5} or {@code 0.07}
+     * into minor units. More than {@link #SCALE} significant decimal places,
+     * exponents and out-of-range values are rejected.
+     */
+    public static long parse(char[] chars, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+
+        long units = 0;
+        int fractionDigits = -1;
+        boolean seenDigit = false;
+        try {
+            for (; i < end; i++) {
+                char c = chars[i];
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw invalid(chars, offset, length);
+                }
+                seenDigit = true;
+                if (fractionDigits >= 0) {
+                    if (fractionDigits == SCALE) {
+                        if (c != '0') {
+                            throw new NumberFormatException("At most " + SCALE + " decimal places are allowed: "
+                                    + new String(chars, offset, length));
+                        }
+                        continue;
+                    }
+                    fractionDigits++;
+                }
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+            }
+            if (!seenDigit) {
+                throw invalid(chars, offset, length);
+            }
+            for (int f = Math.max(fractionDigits, 0); f < SCALE; f++) {
+                units = Math.multiplyExact(units, 10);
+            }
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + new String(chars, offset, length));
+        }
+        return negative ? -units : units;
+    }
+
+    /**
+     * Writes the decimal form of {@code minorUnits} right-aligned into
+     * {@code buffer} (at least {@link #MAX_FORMATTED_LENGTH} chars) and
+     * returns the index of the first character.
+     */
+    public static int format(long minorUnits, char[] buffer) {
+        int position = buffer.length;
+        boolean negative = minorUnits < 0;
+        // Work on the negative value so Long.MIN_VALUE needs no special case
+        long value = negative ? minorUnits : -minorUnits;
+        for (int i = 0; i < SCALE; i++) {
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+        }
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (negative) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+
+    public static String toString(long minorUnits) {
+        char[] buffer = new char[MAX_FORMATTED_LENGTH];
+        int start = format(minorUnits, buffer);
+        return new String(buffer, start, buffer.length - start);
+    }
+
+    private static NumberFormatException invalid(char[] chars, int offset, int length) {
+        return new NumberFormatException("Invalid amount: " + new String(chars, offset, length));
+    }
+}
@@ -0,0 +1,22 @@
+package com.riksonpereira.banking.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+// Writes minor units as a plain JSON decimal number, e.g. 1250 -> 12.50
+public class MoneyJsonSerializer extends StdSerializer<Long> {
+
+    public MoneyJsonSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long minorUnits, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[Money.MAX_FORMATTED_LENGTH];
+        int start = Money.format(minorUnits, buffer);
+        generator.writeNumber(buffer, start, buffer.length - start);
+    }
+}
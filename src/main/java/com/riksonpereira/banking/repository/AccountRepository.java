@@ -1,7 +1,75 @@
 package com.riksonpereira.banking.repository;
 
+import com.riksonpereira.banking.dto.AccountDto;
 import com.riksonpereira.banking.entity.Account;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+// Bulk updates are "versioned" so they also invalidate optimistic readers of the row
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    String FILTERED_ACCOUNTS = "select new com.riksonpereira.banking.dto.AccountDto(a.id, a.accountHolderName, a.balance)"
+            + " from Account a where a.id > :afterId"
+            + " and (:minBalance is null or a.balance >= :minBalance)"
+            + " and (:maxBalance is null or a.balance <= :maxBalance)"
+            + " and (:namePattern is null or a.accountHolderName like :namePattern escape '!')"
+            + " order by a.id";
+
+    // Keyset page of accounts by id, projected straight into DTOs (no managed entities)
+    @Query(FILTERED_ACCOUNTS)
+    List<AccountDto> findPage(@Param("afterId") long afterId,
+                              @Param("minBalance") Long minBalance,
+                              @Param("maxBalance") Long maxBalance,
+                              @Param("namePattern") String namePattern,
+                              Limit limit);
+
+    // Same projection read through a JDBC cursor; must be consumed inside a read-only transaction
+    @Query(FILTERED_ACCOUNTS)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<AccountDto> streamAll(@Param("afterId") long afterId,
+                                 @Param("minBalance") Long minBalance,
+                                 @Param("maxBalance") Long maxBalance,
+                                 @Param("namePattern") String namePattern);
+
+    // Always reads the row, even when the entity is already in the persistence context
+    @Query("select new com.riksonpereira.banking.dto.AccountDto(a.id, a.accountHolderName, a.balance)"
+            + " from Account a where a.id = :id")
+    Optional<AccountDto> findDtoById(@Param("id") Long id);
+
+    // Row-locks the given accounts in id order until the transaction ends; returns the ids that exist
+    @Query(value = "select id from accounts where id in (:ids) order by id for update", nativeQuery = true)
+    List<Long> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Accounts with the given ids in any order, projected into DTOs; missing ids are simply absent
+    @Query("select new com.riksonpereira.banking.dto.AccountDto(a.id, a.accountHolderName, a.balance)"
+            + " from Account a where a.id in :ids")
+    List<AccountDto> findAllDtosById(@Param("ids") Collection<Long> ids);
+
+    // Overwrites the stored balance without loading the entity
+    @Modifying
+    @Query("update versioned Account a set a.balance = :balance where a.id = :id")
+    int updateBalance(@Param("id") Long id, @Param("balance") long balance);
+
+    // Adds to the balance in a single statement; returns 0 when the account does not exist
+    @Modifying
+    @Query("update versioned Account a set a.balance = a.balance + :amount where a.id = :id")
+    int credit(@Param("id") Long id, @Param("amount") long amount);
+
+    // Subtracts from the balance only if it covers the amount; returns 0 when the
+    // account does not exist or the balance is insufficient
+    @Modifying
+    @Query("update versioned Account a set a.balance = a.balance - :amount where a.id = :id and a.balance >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") long amount);
 }
@@ -1,10 +1,26 @@
 package com.riksonpereira.banking.repository;
 
 import com.riksonpereira.banking.entity.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByAccountIdOrderByTimestampDesc(Long accountId);
+
+    // First page of an account's history, newest first
+    @Query("select t from Transaction t where t.accountId = :accountId order by t.timestamp desc, t.id desc")
+    List<Transaction> findLatest(@Param("accountId") Long accountId, Limit limit);
+
+    // Page of an account's history strictly after the (timestamp, id) keyset position
+    @Query("select t from Transaction t where t.accountId = :accountId"
+            + " and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id))"
+            + " order by t.timestamp desc, t.id desc")
+    List<Transaction> findOlderThan(@Param("accountId") Long accountId,
+                                    @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Limit limit);
 }
@@ -0,0 +1,60 @@
+package com.riksonpereira.banking.repository;
+
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.entity.TransactionType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Reads an account's history, or the whole ledger, through a forward-only JDBC cursor with a fixed
+ * fetch size, handing each row to the caller as it arrives so memory use does
+ * not depend on the length of the history. On MySQL this needs
+ * {@code useCursorFetch=true} on the connection URL.
+ */
+@Repository
+public class TransactionStreamRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String SELECT_BY_ACCOUNT_SQL =
+            "select id, account_id, amount, transaction_type, timestamp from transaction"
+                    + " where account_id = ? order by timestamp desc, id desc";
+
+    private static final String SELECT_ALL_SQL =
+            "select id, account_id, amount, transaction_type, timestamp from transaction order by id";
+
+    private JdbcTemplate jdbcTemplate;
+
+    public TransactionStreamRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public void streamByAccountId(Long accountId, Consumer<TransactionDto> consumer) {
+        jdbcTemplate.query(SELECT_BY_ACCOUNT_SQL, rs -> {
+            consumer.accept(toTransactionDto(rs));
+        }, accountId);
+    }
+
+    // Every ledger row in id order; run inside a read-only transaction for a consistent snapshot
+    public void streamAll(Consumer<TransactionDto> consumer) {
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            consumer.accept(toTransactionDto(rs));
+        });
+    }
+
+    private static TransactionDto toTransactionDto(ResultSet rs) throws SQLException {
+        return new TransactionDto(
+                rs.getLong("id"),
+                rs.getLong("account_id"),
+                rs.getLong("amount"),
+                TransactionType.fromCode(rs.getShort("transaction_type")).name(),
+                rs.getTimestamp("timestamp").toLocalDateTime()
+        );
+    }
+}
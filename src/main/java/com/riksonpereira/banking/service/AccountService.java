@@ -1,10 +1,17 @@
 package com.riksonpereira.banking.service;
 
+import com.riksonpereira.banking.dto.AccountBatch;
 import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountOperation;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.OperationResult;
 import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
 import com.riksonpereira.banking.dto.TransferFundDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AccountService {
 
@@ -12,15 +19,29 @@ public interface AccountService {
 
     AccountDto getAccountById(Long id);
 
-    AccountDto deposit(Long id, double amount);
+    // Accounts for all ids in request order, with null for ids that do not exist
+    AccountBatch getAccountsByIds(List<Long> ids);
 
-    AccountDto withdraw(Long id, double amount);
+    AccountDto deposit(Long id, long amount);
 
-    List<AccountDto> getAllAccounts();
+    AccountDto withdraw(Long id, long amount);
+
+    // One page of accounts ordered by id, starting after the given id (null for the first page)
+    AccountPage getAccounts(AccountFilter filter, Long after, int limit);
+
+    // All matching accounts ordered by id, handed to the consumer row by row
+    void exportAccounts(AccountFilter filter, Consumer<AccountDto> consumer);
 
     void deleteAccount(Long id);
 
     void transferFunds(TransferFundDto transferFundDto);
 
-    List<TransactionDto> getAccountTransactions(Long accountId);
+    // Deposits, withdrawals and transfers in order, with one result per operation; a rejected one does not stop the rest
+    List<OperationResult> executeOperations(List<AccountOperation> operations);
+
+    // One page of history, newest first; next is the token from the previous page or null
+    TransactionPage getAccountTransactions(Long accountId, String next, int limit);
+
+    // Whole history, newest first, handed to the consumer row by row
+    void streamAccountTransactions(Long accountId, Consumer<TransactionDto> consumer);
 }
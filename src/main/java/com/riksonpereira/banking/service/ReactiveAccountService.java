@@ -0,0 +1,48 @@
+package com.riksonpereira.banking.service;
+
+import com.riksonpereira.banking.dto.AccountBatch;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link AccountService} for the reactive web
+ * stack. Same operations and semantics; results are published instead of
+ * returned, so no thread waits on the database.
+ */
+public interface ReactiveAccountService {
+
+    Mono<AccountDto> createAccount(AccountDto accountDto);
+
+    Mono<AccountDto> getAccountById(Long id);
+
+    // Accounts for all ids in request order, with null for ids that do not exist
+    Mono<AccountBatch> getAccountsByIds(List<Long> ids);
+
+    Mono<AccountDto> deposit(Long id, long amount);
+
+    Mono<AccountDto> withdraw(Long id, long amount);
+
+    // One page of accounts ordered by id, starting after the given id (null for the first page)
+    Mono<AccountPage> getAccounts(AccountFilter filter, Long after, int limit);
+
+    // All matching accounts ordered by id, emitted as rows arrive
+    Flux<AccountDto> exportAccounts(AccountFilter filter);
+
+    Mono<Void> deleteAccount(Long id);
+
+    Mono<Void> transferFunds(TransferFundDto transferFundDto);
+
+    // One page of history, newest first; next is the token from the previous page or null
+    Mono<TransactionPage> getAccountTransactions(Long accountId, String next, int limit);
+
+    // Whole history, newest first, emitted as rows arrive
+    Flux<TransactionDto> streamAccountTransactions(Long accountId);
+}
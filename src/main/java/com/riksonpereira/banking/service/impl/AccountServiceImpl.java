@@ -1,49 +1,93 @@
 package com.riksonpereira.banking.service.impl;
 
+import com.riksonpereira.banking.cache.AccountCache;
+import com.riksonpereira.banking.cache.SingleFlight;
+import com.riksonpereira.banking.dto.AccountBatch;
 import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountOperation;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.OperationResult;
 import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
 import com.riksonpereira.banking.dto.TransferFundDto;
 import com.riksonpereira.banking.entity.Account;
 import com.riksonpereira.banking.entity.Transaction;
-import com.riksonpereira.banking.exception.AccountException;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.journal.LedgerJournal;
+import com.riksonpereira.banking.ledger.LedgerEngine;
+import com.riksonpereira.banking.ledger.OperationBatchExecutor;
 import com.riksonpereira.banking.mapper.AccountMapper;
 import com.riksonpereira.banking.repository.AccountRepository;
 import com.riksonpereira.banking.repository.TransactionRepository;
+import com.riksonpereira.banking.repository.TransactionStreamRepository;
 import com.riksonpereira.banking.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
+    // Ids per IN list of a batch get
+    private static final int IN_LIST_SIZE = 500;
+
     private AccountRepository accountRepository;
 
     private TransactionRepository transactionRepository;
-    
-    // Add a map to store locks for each account ID
-    private final Map<Long, ReentrantLock> accountLocks = new ConcurrentHashMap<>();
 
-    private static final String TRANSACTION_TYPE_DEPOSIT = "DEPOSIT";
-    private static final String TRANSACTION_TYPE_WITHDRAW = "WITHDRAW";
-    private static final String TRANSACTION_TYPE_TRANSFER = "TRANSFER";
+    private TransactionStreamRepository transactionStreamRepository;
+
+    // Applies deposits, withdrawals, transfers and deletes (see banking.engine)
+    private LedgerEngine ledgerEngine;
+
+    // Runs operation batches through the ledger engine in chunked commits
+    private OperationBatchExecutor operationBatchExecutor;
+
+    // Holds committed history rows not yet in the table; null unless banking.journal.enabled
+    private LedgerJournal ledgerJournal;
+
+    // Read-through account cache; every write below drops the entry so the next read reloads it
+    // (see banking.cache.enabled). Writes never put their result: two concurrent deposits can
+    // return in the opposite order they committed, and the older balance would win
+    private AccountCache accountCache;
+
+    // Concurrent identical reads share one database query
+    private SingleFlight<Long, AccountDto> accountLoads;
+
+    private SingleFlight<TransactionPageKey, TransactionPage> transactionPageLoads;
 
     public AccountServiceImpl(AccountRepository accountRepository,
-                              TransactionRepository transactionRepository) {
+                              TransactionRepository transactionRepository,
+                              TransactionStreamRepository transactionStreamRepository,
+                              LedgerEngine ledgerEngine,
+                              OperationBatchExecutor operationBatchExecutor,
+                              ObjectProvider<LedgerJournal> ledgerJournal,
+                              AccountCache accountCache,
+                              MeterRegistry meterRegistry) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
-    }
-    
-    // Helper method to get or create a lock for an account ID
-    private ReentrantLock getAccountLock(Long accountId) {
-        return accountLocks.computeIfAbsent(accountId, id -> new ReentrantLock());
+        this.transactionStreamRepository = transactionStreamRepository;
+        this.ledgerEngine = ledgerEngine;
+        this.operationBatchExecutor = operationBatchExecutor;
+        this.ledgerJournal = ledgerJournal.getIfAvailable();
+        this.accountCache = accountCache;
+        this.accountLoads = new SingleFlight<>("account", meterRegistry);
+        this.transactionPageLoads = new SingleFlight<>("transactions", meterRegistry);
     }
 
     @Override
@@ -56,168 +100,214 @@ public class AccountServiceImpl implements AccountService {
     @Override
     public AccountDto getAccountById(Long id) {
 
-        Account account = accountRepository
-                .findById(id)
-                .orElseThrow(() -> new AccountException("Account does not exists"));
-        return AccountMapper.mapToAccountDto(account);
+        AccountDto account = accountCache.get(id, (key) -> accountLoads.load(key, (accountId) ->
+                AccountMapper.mapToAccountDto(accountRepository
+                        .findById(accountId)
+                        .orElseThrow(() -> AccountNotFoundException.INSTANCE))));
+        return ledgerEngine.overlay(account);
     }
 
     @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
-    public AccountDto deposit(Long id, double amount) {
-        ReentrantLock lock = getAccountLock(id);
-        lock.lock();
-        try {
-            Account account = accountRepository
-                    .findById(id)
-                    .orElseThrow(() -> new AccountException("Account does not exists"));
-
-            double total = account.getBalance() + amount;
-            account.setBalance(total);
-            Account savedAccount = accountRepository.save(account);
-
-            Transaction transaction = new Transaction();
-            transaction.setAccountId(id);
-            transaction.setAmount(amount);
-            transaction.setTransactionType(TRANSACTION_TYPE_DEPOSIT);
-            transaction.setTimestamp(LocalDateTime.now());
-
-            transactionRepository.save(transaction);
-
-            return AccountMapper.mapToAccountDto(savedAccount);
-        } finally {
-            lock.unlock();
+    @Transactional(readOnly = true)
+    public AccountBatch getAccountsByIds(List<Long> ids) {
+        Map<Long, AccountDto> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            AccountDto cached = accountCache.getIfPresent(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
         }
-    }
 
-    @Override
-    @Transactional(isolation = Isolation.REPEATABLE_READ)
-    public AccountDto withdraw(Long id, double amount) {
-        ReentrantLock lock = getAccountLock(id);
-        lock.lock();
-        try {
-            Account account = accountRepository
-                    .findById(id)
-                    .orElseThrow(() -> new AccountException("Account does not exists"));
-
-            if(account.getBalance() < amount){
-                throw new AccountException("Insufficient amount");
-            }
+        // Rows loaded here are not cached: unlike a single load, a bulk query is not ordered against concurrent writes
+        for (int from = 0; from < missing.size(); from += IN_LIST_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + IN_LIST_SIZE, missing.size()));
+            accountRepository.findAllDtosById(chunk).forEach((account) -> found.put(account.getId(), account));
+        }
 
-            double total = account.getBalance() - amount;
-            account.setBalance(total);
-            Account savedAccount = accountRepository.save(account);
+        found.replaceAll((id, account) -> ledgerEngine.overlay(account));
+        return AccountBatch.of(ids, found);
+    }
 
-            Transaction transaction = new Transaction();
-            transaction.setAccountId(id);
-            transaction.setAmount(amount);
-            transaction.setTransactionType(TRANSACTION_TYPE_WITHDRAW);
-            transaction.setTimestamp(LocalDateTime.now());
+    @Override
+    public AccountDto deposit(Long id, long amount) {
+        AccountDto account = ledgerEngine.deposit(id, amount);
+        written(id);
+        accountCache.invalidate(id);
+        return account;
+    }
 
-            transactionRepository.save(transaction);
+    @Override
+    public AccountDto withdraw(Long id, long amount) {
+        AccountDto account = ledgerEngine.withdraw(id, amount);
+        written(id);
+        accountCache.invalidate(id);
+        return account;
+    }
 
-            return AccountMapper.mapToAccountDto(savedAccount);
-        } finally {
-            lock.unlock();
+    @Override
+    public AccountPage getAccounts(AccountFilter filter, Long after, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        List<AccountDto> accounts = accountRepository.findPage(after == null ? 0 : after,
+                filter.minBalance(),
+                filter.maxBalance(),
+                toLikePattern(filter.namePrefix()),
+                Limit.of(limit + 1));
+
+        Long next = null;
+        if (accounts.size() > limit) {
+            accounts = accounts.subList(0, limit);
+            next = accounts.get(limit - 1).getId();
         }
+
+        List<AccountDto> page = accounts.stream()
+                .map((account) -> ledgerEngine.overlay(account))
+                .collect(Collectors.toList());
+        return new AccountPage(page, next);
     }
 
     @Override
-    public List<AccountDto> getAllAccounts() {
-        List<Account> accounts = accountRepository.findAll();
-        return accounts.stream().map((account) -> AccountMapper.mapToAccountDto(account))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void exportAccounts(AccountFilter filter, Consumer<AccountDto> consumer) {
+        try (Stream<AccountDto> accounts = accountRepository.streamAll(0,
+                filter.minBalance(),
+                filter.maxBalance(),
+                toLikePattern(filter.namePrefix()))) {
+            accounts.forEach(account -> consumer.accept(ledgerEngine.overlay(account)));
+        }
     }
 
     @Override
     public void deleteAccount(Long id) {
-        ReentrantLock lock = getAccountLock(id);
-        lock.lock();
-        try {
-            Account account = accountRepository
-                    .findById(id)
-                    .orElseThrow(() -> new AccountException("Account does not exists"));
-
-            accountRepository.deleteById(id);
-            // Remove the lock for this account
-            accountLocks.remove(id);
-        } finally {
-            lock.unlock();
-        }
+        ledgerEngine.delete(id);
+        written(id);
+        accountCache.invalidate(id);
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     public void transferFunds(TransferFundDto transferFundDto) {
-        Long fromAccountId = transferFundDto.fromAccountId();
-        Long toAccountId = transferFundDto.toAccountId();
-        
-        // Always acquire locks in a consistent order to prevent deadlocks
-        ReentrantLock firstLock, secondLock;
-        
-        if (fromAccountId < toAccountId) {
-            firstLock = getAccountLock(fromAccountId);
-            secondLock = getAccountLock(toAccountId);
-        } else {
-            firstLock = getAccountLock(toAccountId);
-            secondLock = getAccountLock(fromAccountId);
-        }
-        
-        firstLock.lock();
-        try {
-            secondLock.lock();
-            try {
-                //Retrieve the account from which we send the amount
-                Account fromAccount = accountRepository
-                        .findById(transferFundDto.fromAccountId())
-                        .orElseThrow(() -> new AccountException("Account does not exists"));
-
-                //Retrieve the  account to which we send the anount
-                Account toAccount = accountRepository
-                        .findById(transferFundDto.toAccountId())
-                        .orElseThrow(() -> new AccountException("Account does not exists"));
-
-                //validation
-                if(transferFundDto.fromAccountId() == transferFundDto.toAccountId()){
-                    throw new AccountException(("Transfer not prossible to the same account"));
-                }
-                if(fromAccount.getBalance() < transferFundDto.amount()){
-                    throw new AccountException("Inefficient balance");
-                }
-
-                //Debit the amount from fromAccount object
-                fromAccount.setBalance(fromAccount.getBalance() - transferFundDto.amount());
-
-                //Credit the amount to toAccount object
-                toAccount.setBalance(toAccount.getBalance() + transferFundDto.amount());
-
-                accountRepository.save(fromAccount);
-
-                accountRepository.save(toAccount);
-
-                Transaction transaction = new Transaction();
-                transaction.setAccountId(transferFundDto.fromAccountId());
-                transaction.setAmount(transferFundDto.amount());
-                transaction.setTransactionType(TRANSACTION_TYPE_TRANSFER);
-                transaction.setTimestamp(LocalDateTime.now());
-
-                transactionRepository.save(transaction);
-            } finally {
-                secondLock.unlock();
+        ledgerEngine.transfer(transferFundDto.fromAccountId(),
+                transferFundDto.toAccountId(),
+                transferFundDto.amount());
+        written(transferFundDto.fromAccountId());
+        written(transferFundDto.toAccountId());
+        accountCache.invalidate(transferFundDto.fromAccountId());
+        accountCache.invalidate(transferFundDto.toAccountId());
+    }
+
+    @Override
+    public List<OperationResult> executeOperations(List<AccountOperation> operations) {
+        List<OperationResult> results = operationBatchExecutor.execute(operations);
+        for (int i = 0; i < results.size(); i++) {
+            AccountOperation operation = operations.get(i);
+            if (!results.get(i).success()) {
+                continue;
+            }
+            written(operation.accountId());
+            accountCache.invalidate(operation.accountId());
+            if (operation.type() == AccountOperation.Type.TRANSFER) {
+                written(operation.toAccountId());
+                accountCache.invalidate(operation.toAccountId());
             }
-        } finally {
-            firstLock.unlock();
         }
+        return results;
     }
 
     @Override
-    public List<TransactionDto> getAccountTransactions(Long accountId) {
-        List<Transaction> transactions = transactionRepository.findByAccountIdOrderByTimestampDesc(accountId);
+    public TransactionPage getAccountTransactions(Long accountId, String next, int limit) {
+        return transactionPageLoads.load(new TransactionPageKey(accountId, next, limit),
+                (key) -> loadAccountTransactions(accountId, next, limit));
+    }
 
-        return transactions
+    private TransactionPage loadAccountTransactions(Long accountId, String next, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        TransactionCursor cursor = next == null ? null : TransactionCursor.decode(next);
+        List<Transaction> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findLatest(accountId, fetch);
+        } else {
+            transactions = transactionRepository.findOlderThan(accountId, cursor.timestamp(), cursor.id(), fetch);
+        }
+
+        List<TransactionDto> page = transactions
                 .stream()
                 .map((transaction) -> convertEntityToDto(transaction))
                 .collect(Collectors.toList());
+        if (ledgerJournal != null) {
+            page = mergePending(page, ledgerJournal.pendingFor(accountId), cursor);
+        }
+
+        String nextToken = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            TransactionDto last = page.get(limit - 1);
+            nextToken = new TransactionCursor(last.timestamp(), last.id()).encode();
+        }
+        return new TransactionPage(page, nextToken);
+    }
+
+    @Override
+    public void streamAccountTransactions(Long accountId, Consumer<TransactionDto> consumer) {
+        if (ledgerJournal == null) {
+            transactionStreamRepository.streamByAccountId(accountId, consumer);
+            return;
+        }
+
+        // Undrained rows are the newest, so they lead; skip them if the drainer inserts one meanwhile
+        List<TransactionDto> pending = ledgerJournal.pendingFor(accountId);
+        Set<Long> pendingIds = new HashSet<>();
+        for (TransactionDto transaction : pending) {
+            pendingIds.add(transaction.id());
+            consumer.accept(transaction);
+        }
+        transactionStreamRepository.streamByAccountId(accountId, transaction -> {
+            if (!pendingIds.contains(transaction.id())) {
+                consumer.accept(transaction);
+            }
+        });
+    }
+
+    // A read that starts after a write returned must not join a load that began before it
+    private void written(Long accountId) {
+        accountLoads.forget((id) -> id.equals(accountId));
+        transactionPageLoads.forget((key) -> key.accountId().equals(accountId));
+    }
+
+    private record TransactionPageKey(Long accountId, String next, int limit) {
+    }
+
+    // Merges journal rows past the cursor into a page read from the table, keeping (timestamp, id) order
+    static List<TransactionDto> mergePending(List<TransactionDto> page,
+                                             List<TransactionDto> pending,
+                                             TransactionCursor cursor) {
+        if (pending.isEmpty()) {
+            return page;
+        }
+        Map<Long, TransactionDto> merged = new HashMap<>();
+        for (TransactionDto transaction : page) {
+            merged.put(transaction.id(), transaction);
+        }
+        for (TransactionDto transaction : pending) {
+            if (cursor == null || cursor.isAfter(transaction.timestamp(), transaction.id())) {
+                merged.putIfAbsent(transaction.id(), transaction);
+            }
+        }
+        List<TransactionDto> sorted = new ArrayList<>(merged.values());
+        sorted.sort(Comparator.comparing(TransactionDto::timestamp)
+                .thenComparing(TransactionDto::id)
+                .reversed());
+        return sorted;
+    }
+
+    // '!' is the LIKE escape character used by AccountRepository and the reactive queries
+    static String toLikePattern(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
 
     public TransactionDto convertEntityToDto(Transaction transaction){
@@ -225,7 +315,7 @@ public class AccountServiceImpl implements AccountService {
                 transaction.getId(),
                 transaction.getAccountId(),
                 transaction.getAmount(),
-                transaction.getTransactionType(),
+                transaction.getTransactionType().name(),
                 transaction.getTimestamp()
         );
     }
@@ -0,0 +1,319 @@
+package com.riksonpereira.banking.service.impl;
+
+import com.riksonpereira.banking.dto.AccountBatch;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.dto.AccountFilter;
+import com.riksonpereira.banking.dto.AccountPage;
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import com.riksonpereira.banking.exception.SameAccountTransferException;
+import com.riksonpereira.banking.service.ReactiveAccountService;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * R2DBC implementation of {@link ReactiveAccountService}. Balance changes use
+ * the same conditional single-statement UPDATEs as the atomic ledger engine,
+ * so it can run next to servlet instances against the same database.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountServiceImpl implements ReactiveAccountService {
+
+    private static final String ACCOUNT_COLUMNS = "select id, account_holder_name, balance from accounts";
+
+    private static final String FILTERED_ACCOUNTS = ACCOUNT_COLUMNS + " where id > :afterId"
+            + " and (:minBalance is null or balance >= :minBalance)"
+            + " and (:maxBalance is null or balance <= :maxBalance)"
+            + " and (:namePattern is null or account_holder_name like :namePattern escape '!')"
+            + " order by id";
+
+    // Ids per IN list of a batch get
+    private static final int IN_LIST_SIZE = 500;
+
+    private static final String TRANSACTION_COLUMNS =
+            "select id, account_id, amount, transaction_type, timestamp from transaction";
+
+    private DatabaseClient databaseClient;
+
+    private TransactionalOperator transactionalOperator;
+
+    // Block of transaction ids reserved from transaction_seq, shared with Hibernate's pooled generator
+    private final AtomicReference<IdBlock> idBlock = new AtomicReference<>();
+
+    public ReactiveAccountServiceImpl(DatabaseClient databaseClient,
+                                      TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<AccountDto> createAccount(AccountDto accountDto) {
+        return databaseClient.sql("insert into accounts (account_holder_name, balance, version) values (:name, :balance, 0)")
+                .bind("name", accountDto.getAccountHolderName())
+                .bind("balance", accountDto.getBalance())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> new AccountDto(id, accountDto.getAccountHolderName(), accountDto.getBalance()));
+    }
+
+    @Override
+    public Mono<AccountDto> getAccountById(Long id) {
+        return findAccount(id);
+    }
+
+    @Override
+    public Mono<AccountBatch> getAccountsByIds(List<Long> ids) {
+        return Flux.fromIterable(new LinkedHashSet<>(ids))
+                .buffer(IN_LIST_SIZE)
+                .concatMap(chunk -> databaseClient.sql(ACCOUNT_COLUMNS + " where id in (:ids)")
+                        .bind("ids", chunk)
+                        .map(ReactiveAccountServiceImpl::toAccountDto)
+                        .all())
+                .collectMap(account -> account.getId())
+                .map(found -> AccountBatch.of(ids, found));
+    }
+
+    @Override
+    public Mono<AccountDto> deposit(Long id, long amount) {
+        return nextTransactionId().flatMap(transactionId -> transactionalOperator.transactional(
+                credit(id, amount)
+                        .flatMap(updated -> updated == 0
+                                ? Mono.<Void>error(AccountNotFoundException.INSTANCE)
+                                : record(transactionId, id, amount, TransactionType.DEPOSIT))
+                        .then(findAccount(id))));
+    }
+
+    @Override
+    public Mono<AccountDto> withdraw(Long id, long amount) {
+        return nextTransactionId().flatMap(transactionId -> transactionalOperator.transactional(
+                debit(id, amount, InsufficientFundsException.INSUFFICIENT_AMOUNT)
+                        .then(record(transactionId, id, amount, TransactionType.WITHDRAW))
+                        .then(findAccount(id))));
+    }
+
+    @Override
+    public Mono<AccountPage> getAccounts(AccountFilter filter, Long after, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        return filteredAccounts(FILTERED_ACCOUNTS + " limit :limit", filter, after)
+                .bind("limit", limit + 1)
+                .map(ReactiveAccountServiceImpl::toAccountDto)
+                .all()
+                .collectList()
+                .map(accounts -> {
+                    if (accounts.size() <= limit) {
+                        return new AccountPage(accounts, null);
+                    }
+                    List<AccountDto> page = accounts.subList(0, limit);
+                    return new AccountPage(page, page.get(limit - 1).getId());
+                });
+    }
+
+    @Override
+    public Flux<AccountDto> exportAccounts(AccountFilter filter) {
+        return filteredAccounts(FILTERED_ACCOUNTS, filter, null)
+                .map(ReactiveAccountServiceImpl::toAccountDto)
+                .all();
+    }
+
+    @Override
+    public Mono<Void> deleteAccount(Long id) {
+        return databaseClient.sql("delete from accounts where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(AccountNotFoundException.INSTANCE)
+                        : Mono.<Void>empty());
+    }
+
+    @Override
+    public Mono<Void> transferFunds(TransferFundDto transferFundDto) {
+        Long fromAccountId = transferFundDto.fromAccountId();
+        Long toAccountId = transferFundDto.toAccountId();
+        long amount = transferFundDto.amount();
+        if(fromAccountId.equals(toAccountId)){
+            return Mono.error(SameAccountTransferException.INSTANCE);
+        }
+
+        // Update rows in id order so two opposite transfers cannot deadlock in the database
+        Mono<Void> debit = debit(fromAccountId, amount, InsufficientFundsException.INEFFICIENT_BALANCE);
+        Mono<Void> credit = credit(toAccountId, amount)
+                .flatMap(updated -> updated == 0
+                        ? Mono.<Void>error(AccountNotFoundException.INSTANCE)
+                        : Mono.<Void>empty());
+        Mono<Void> updates = fromAccountId < toAccountId ? debit.then(credit) : credit.then(debit);
+
+        return nextTransactionId().flatMap(transactionId -> transactionalOperator.transactional(
+                updates.then(record(transactionId, fromAccountId, amount, TransactionType.TRANSFER))));
+    }
+
+    @Override
+    public Mono<TransactionPage> getAccountTransactions(Long accountId, String next, int limit) {
+        // Fetch one extra row to learn whether another page follows
+        DatabaseClient.GenericExecuteSpec query;
+        if (next == null) {
+            query = databaseClient.sql(TRANSACTION_COLUMNS + " where account_id = :accountId"
+                    + " order by timestamp desc, id desc limit :limit");
+        } else {
+            TransactionCursor cursor = TransactionCursor.decode(next);
+            query = databaseClient.sql(TRANSACTION_COLUMNS + " where account_id = :accountId"
+                            + " and (timestamp < :timestamp or (timestamp = :timestamp and id < :id))"
+                            + " order by timestamp desc, id desc limit :limit")
+                    .bind("timestamp", cursor.timestamp())
+                    .bind("id", cursor.id());
+        }
+
+        return query.bind("accountId", accountId)
+                .bind("limit", limit + 1)
+                .map(ReactiveAccountServiceImpl::toTransactionDto)
+                .all()
+                .collectList()
+                .map(transactions -> {
+                    if (transactions.size() <= limit) {
+                        return new TransactionPage(transactions, null);
+                    }
+                    List<TransactionDto> page = transactions.subList(0, limit);
+                    TransactionDto last = page.get(limit - 1);
+                    return new TransactionPage(page, new TransactionCursor(last.timestamp(), last.id()).encode());
+                });
+    }
+
+    @Override
+    public Flux<TransactionDto> streamAccountTransactions(Long accountId) {
+        return databaseClient.sql(TRANSACTION_COLUMNS + " where account_id = :accountId order by timestamp desc, id desc")
+                .bind("accountId", accountId)
+                .map(ReactiveAccountServiceImpl::toTransactionDto)
+                .all();
+    }
+
+    private Mono<AccountDto> findAccount(Long id) {
+        return databaseClient.sql(ACCOUNT_COLUMNS + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveAccountServiceImpl::toAccountDto)
+                .one()
+                .switchIfEmpty(Mono.error(() -> AccountNotFoundException.INSTANCE));
+    }
+
+    private DatabaseClient.GenericExecuteSpec filteredAccounts(String sql, AccountFilter filter, Long after) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(sql)
+                .bind("afterId", after == null ? 0L : after);
+        query = filter.minBalance() == null
+                ? query.bindNull("minBalance", Long.class)
+                : query.bind("minBalance", filter.minBalance());
+        query = filter.maxBalance() == null
+                ? query.bindNull("maxBalance", Long.class)
+                : query.bind("maxBalance", filter.maxBalance());
+        String namePattern = AccountServiceImpl.toLikePattern(filter.namePrefix());
+        return namePattern == null
+                ? query.bindNull("namePattern", String.class)
+                : query.bind("namePattern", namePattern);
+    }
+
+    private Mono<Long> credit(Long id, long amount) {
+        return databaseClient.sql("update accounts set balance = balance + :amount, version = version + 1 where id = :id")
+                .bind("amount", amount)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // Only on the failure path does a second query tell a missing account from a short balance
+    private Mono<Void> debit(Long id, long amount, InsufficientFundsException insufficient) {
+        return databaseClient.sql("update accounts set balance = balance - :amount, version = version + 1"
+                        + " where id = :id and balance >= :amount")
+                .bind("amount", amount)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : databaseClient.sql("select 1 from accounts where id = :id")
+                        .bind("id", id)
+                        .map(row -> 1)
+                        .one()
+                        .hasElement()
+                        .flatMap(exists -> Mono.<Void>error(exists
+                                ? insufficient
+                                : AccountNotFoundException.INSTANCE)));
+    }
+
+    private Mono<Void> record(Long transactionId, Long accountId, long amount, TransactionType type) {
+        return databaseClient.sql("insert into transaction (id, account_id, amount, transaction_type, timestamp)"
+                        + " values (:id, :accountId, :amount, :type, :timestamp)")
+                .bind("id", transactionId)
+                .bind("accountId", accountId)
+                .bind("amount", amount)
+                .bind("type", type.getCode())
+                .bind("timestamp", LocalDateTime.now())
+                .then();
+    }
+
+    private Mono<Long> nextTransactionId() {
+        return Mono.defer(() -> {
+            IdBlock block = idBlock.get();
+            if (block != null) {
+                long id = block.next().getAndIncrement();
+                if (id <= block.last()) {
+                    return Mono.just(id);
+                }
+            }
+            // Exhausted: reserve a fresh block; if another caller won the race ours is simply unused
+            return reserveIdBlock().flatMap(fresh -> {
+                idBlock.compareAndSet(block, fresh);
+                return nextTransactionId();
+            });
+        });
+    }
+
+    // Mirrors Hibernate's pooled optimizer: reading value v reserves ids (v - allocationSize, v]
+    private Mono<IdBlock> reserveIdBlock() {
+        long size = Transaction.ID_ALLOCATION_SIZE;
+        Mono<Long> reserve = databaseClient.sql("select next_val from transaction_seq for update")
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(value -> databaseClient.sql("update transaction_seq set next_val = :next where next_val = :current")
+                        .bind("next", value + size)
+                        .bind("current", value)
+                        .then()
+                        .thenReturn(value));
+        return transactionalOperator.transactional(reserve)
+                .flatMap(value -> value < size
+                        ? reserveIdBlock()
+                        : Mono.just(new IdBlock(new AtomicLong(value - size + 1), value)));
+    }
+
+    private static AccountDto toAccountDto(Readable row) {
+        return new AccountDto(row.get("id", Long.class),
+                row.get("account_holder_name", String.class),
+                row.get("balance", Long.class));
+    }
+
+    private static TransactionDto toTransactionDto(Readable row) {
+        return new TransactionDto(
+                row.get("id", Long.class),
+                row.get("account_id", Long.class),
+                row.get("amount", Long.class),
+                TransactionType.fromCode(row.get("transaction_type", Short.class)).name(),
+                row.get("timestamp", LocalDateTime.class)
+        );
+    }
+
+    private record IdBlock(AtomicLong next, long last) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.riksonpereira.banking.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in an account's history, ordered by (timestamp, id)
+ * descending. Encoded as an opaque URL-safe token for clients.
+ */
+record TransactionCursor(LocalDateTime timestamp, Long id) {
+
+    // True if the (timestamp, id) position comes after this cursor in newest-first order
+    boolean isAfter(LocalDateTime otherTimestamp, Long otherId) {
+        int byTime = otherTimestamp.compareTo(timestamp);
+        return byTime < 0 || (byTime == 0 && otherId < id);
+    }
+
+    String encode() {
+        String raw = timestamp + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(',');
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page token");
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.riksonpereira.banking.snapshot;
+
+import com.riksonpereira.banking.cache.AccountCache;
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Periodically writes every account balance to a binary {@link SnapshotFile}
+ * and, on startup, loads the last one into the {@link AccountCache} before
+ * the web server accepts requests. Rows changed after the snapshot was taken
+ * are caught up through {@code accounts.updated_at}, and accounts deleted
+ * since are dropped again, so the warmed cache matches the database.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.snapshot.enabled", havingValue = "true")
+public class BalanceSnapshot implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshot.class);
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String ACCOUNTS_SQL = "select id, account_holder_name, balance from accounts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnly;
+
+    private final AccountCache accountCache;
+
+    private final BankingProperties.Snapshot properties;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "balance-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BalanceSnapshot(DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           AccountCache accountCache,
+                           BankingProperties bankingProperties) {
+        // Own template with a fetch size, so the full scan is streamed through a cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.accountCache = accountCache;
+        this.properties = bankingProperties.getSnapshot();
+    }
+
+    // Runs after every bean exists but before the web server starts
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (accountCache.isEnabled() && Files.exists(properties.getFile())) {
+            try {
+                warmUp(properties.getFile());
+            } catch (IOException | RuntimeException e) {
+                // A missing or damaged snapshot only costs a cold start
+                log.warn("Could not load balance snapshot {}, starting cold", properties.getFile(), e);
+            }
+        }
+        long interval = properties.getInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::writeQuietly, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        // A fresh snapshot on shutdown makes the next start as warm as possible
+        writeQuietly();
+    }
+
+    public void write() throws IOException {
+        Path file = properties.getFile();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long start = System.nanoTime();
+        try (SnapshotFile.Writer writer = new SnapshotFile.Writer(file)) {
+            Long takenAt = readOnly.execute(status -> {
+                // Database clock, read before the scan, so catch-up never starts later than the data
+                Timestamp now = jdbcTemplate.queryForObject("select now(6)", Timestamp.class);
+                jdbcTemplate.query(ACCOUNTS_SQL + " order by id", rs -> {
+                    try {
+                        writer.add(rs.getLong("id"), rs.getLong("balance"), rs.getString("account_holder_name"));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return toMicros(now.toLocalDateTime());
+            });
+            writer.commit(takenAt);
+            log.info("Wrote balance snapshot of {} accounts in {} ms", writer.count(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write balance snapshot", e);
+        }
+    }
+
+    private void warmUp(Path file) throws IOException {
+        long start = System.nanoTime();
+        SnapshotFile.Reader snapshot = SnapshotFile.Reader.open(file);
+        int count = Math.toIntExact(snapshot.count());
+
+        // Records are fixed-size, so ranges of the mapped file decode independently
+        IntStream.range(0, count).parallel().forEach(i ->
+                accountCache.preload(new AccountDto(snapshot.id(i), snapshot.name(i), snapshot.balance(i))));
+
+        // Rows written after the snapshot; the margin covers transactions still open when it was taken
+        LocalDateTime since = fromMicros(snapshot.takenAtMicros()).minus(properties.getCatchUpMargin());
+        int[] changed = {0};
+        jdbcTemplate.query(ACCOUNTS_SQL + " where updated_at >= ?", rs -> {
+            accountCache.put(new AccountDto(rs.getLong("id"), rs.getString("account_holder_name"), rs.getLong("balance")));
+            changed[0]++;
+        }, Timestamp.valueOf(since));
+
+        // Merge the sorted snapshot ids with the live ids to find deleted accounts
+        int[] cursor = {0};
+        jdbcTemplate.query("select id from accounts order by id", rs -> {
+            long id = rs.getLong(1);
+            while (cursor[0] < count && snapshot.id(cursor[0]) < id) {
+                accountCache.invalidate(snapshot.id(cursor[0]++));
+            }
+            if (cursor[0] < count && snapshot.id(cursor[0]) == id) {
+                cursor[0]++;
+            }
+        });
+        while (cursor[0] < count) {
+            accountCache.invalidate(snapshot.id(cursor[0]++));
+        }
+
+        log.info("Warmed account cache with {} accounts from snapshot ({} changed since) in {} ms", count, changed[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,235 @@
+package com.riksonpereira.banking.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of a balance snapshot. A fixed header is followed by one
+ * fixed-size record per account, sorted by id, and then a block with all
+ * holder names; a record points into the name block by offset and length.
+ * Fixed records let a mapped file be split into ranges and decoded in
+ * parallel, or binary-searched by id. The header carries a CRC32C of
+ * everything after it. A file is mapped as a whole, so it is limited to 2 GB.
+ */
+final class SnapshotFile {
+
+    static final int MAGIC = 0x42534E50; // "BSNP"
+
+    static final int VERSION = 1;
+
+    // magic, version, account count, taken-at (epoch micros, database clock), name block size, body crc
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4;
+
+    // id, balance (minor units), name offset, name length (-1 for no name)
+    static final int RECORD_SIZE = 8 + 8 + 4 + 4;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] NO_NAME = new byte[0];
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Streams accounts into a new snapshot. Records and names go to separate
+     * files while accounts arrive, are joined afterwards, and the result
+     * replaces the target atomically, so readers only ever see a complete file.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final Path target;
+
+        private final Path recordsPath;
+
+        private final Path namesPath;
+
+        private final FileChannel records;
+
+        private final FileChannel names;
+
+        private final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private final ByteBuffer nameBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private long count;
+
+        private long namesLength;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.recordsPath = target.resolveSibling(target.getFileName() + ".records.tmp");
+            this.namesPath = target.resolveSibling(target.getFileName() + ".names.tmp");
+            this.records = FileChannel.open(recordsPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.names = FileChannel.open(namesPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        // Accounts must arrive in ascending id order
+        void add(long id, long balance, String name) throws IOException {
+            byte[] bytes = name == null ? NO_NAME : name.getBytes(StandardCharsets.UTF_8);
+            if (recordBuffer.remaining() < RECORD_SIZE) {
+                drain(recordBuffer, records);
+            }
+            recordBuffer.putLong(id)
+                    .putLong(balance)
+                    .putInt(Math.toIntExact(namesLength))
+                    .putInt(name == null ? -1 : bytes.length);
+            if (nameBuffer.remaining() < bytes.length) {
+                drain(nameBuffer, names);
+            }
+            if (bytes.length > nameBuffer.capacity()) {
+                names.write(ByteBuffer.wrap(bytes));
+            } else {
+                nameBuffer.put(bytes);
+            }
+            namesLength += bytes.length;
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        void commit(long takenAtMicros) throws IOException {
+            drain(recordBuffer, records);
+            drain(nameBuffer, names);
+
+            Path assembled = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(assembled, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // Append both parts after the header without copying them through the heap
+                long position = HEADER_SIZE;
+                position += transfer(recordsPath, out, position);
+                transfer(namesPath, out, position);
+
+                CRC32C crc = new CRC32C();
+                crc.update(out.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, out.size() - HEADER_SIZE));
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(count)
+                        .putLong(takenAtMicros)
+                        .putLong(namesLength)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                while (header.hasRemaining()) {
+                    out.write(header, header.position());
+                }
+                out.force(true);
+            }
+            Files.move(assembled, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            records.close();
+            names.close();
+            Files.deleteIfExists(recordsPath);
+            Files.deleteIfExists(namesPath);
+        }
+
+        private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static long transfer(Path source, FileChannel out, long position) throws IOException {
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                long size = in.size();
+                long done = 0;
+                while (done < size) {
+                    done += in.transferTo(done, size - done, out.position(position + done));
+                }
+                return size;
+            }
+        }
+    }
+
+    /**
+     * A snapshot mapped read-only. The header and checksum are verified when
+     * it is opened; records can then be read from any thread.
+     */
+    static final class Reader {
+
+        private final MappedByteBuffer buffer;
+
+        private final long count;
+
+        private final long takenAtMicros;
+
+        private final int namesStart;
+
+        private Reader(MappedByteBuffer buffer, long count, long takenAtMicros, int namesStart) {
+            this.buffer = buffer;
+            this.count = count;
+            this.takenAtMicros = takenAtMicros;
+            this.namesStart = namesStart;
+        }
+
+        static Reader open(Path path) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a balance snapshot: " + path);
+            }
+            long count = buffer.getLong(8);
+            long takenAtMicros = buffer.getLong(16);
+            long namesLength = buffer.getLong(24);
+            int crc = buffer.getInt(32);
+            if (HEADER_SIZE + count * RECORD_SIZE + namesLength != buffer.capacity()) {
+                throw new IOException("Truncated balance snapshot: " + path);
+            }
+            CRC32C actual = new CRC32C();
+            actual.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+            if ((int) actual.getValue() != crc) {
+                throw new IOException("Corrupt balance snapshot: " + path);
+            }
+            return new Reader(buffer, count, takenAtMicros, (int) (HEADER_SIZE + count * RECORD_SIZE));
+        }
+
+        long count() {
+            return count;
+        }
+
+        long takenAtMicros() {
+            return takenAtMicros;
+        }
+
+        long id(int index) {
+            return buffer.getLong(recordOffset(index));
+        }
+
+        long balance(int index) {
+            return buffer.getLong(recordOffset(index) + 8);
+        }
+
+        String name(int index) {
+            int offset = recordOffset(index);
+            int length = buffer.getInt(offset + 20);
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(namesStart + buffer.getInt(offset + 16), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static int recordOffset(int index) {
+            return HEADER_SIZE + index * RECORD_SIZE;
+        }
+    }
+}
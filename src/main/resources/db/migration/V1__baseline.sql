@@ -0,0 +1,31 @@
+-- Schema as previously created by hibernate.ddl-auto=update. Every statement is
+-- idempotent so the migration also applies cleanly to databases created that way.
+
+create table if not exists accounts (
+    id bigint not null auto_increment,
+    account_holder_name varchar(255),
+    balance double not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table if not exists transaction (
+    id bigint not null,
+    account_id bigint,
+    amount double not null,
+    timestamp datetime(6),
+    transaction_type varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+-- Backing table for the pooled transaction id sequence
+create table if not exists transaction_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into transaction_seq (next_val)
+select 1 from dual where not exists (select 1 from transaction_seq);
+
+-- A pooled block fetched at value v covers ids (v - 100, v], so stay clear of
+-- ids already assigned by the former IDENTITY column
+update transaction_seq
+set next_val = greatest(next_val, (select coalesce(max(id), 0) + 101 from transaction));
@@ -0,0 +1,21 @@
+-- Ids now come from transaction_seq only
+alter table transaction modify id bigint not null;
+
+-- Store the transaction type as a SMALLINT code (see TransactionType)
+alter table transaction add column transaction_type_code smallint;
+
+update transaction
+set transaction_type_code = case transaction_type
+    when 'DEPOSIT' then 1
+    when 'WITHDRAW' then 2
+    when 'TRANSFER' then 3
+end;
+
+alter table transaction drop column transaction_type;
+
+alter table transaction
+    change column transaction_type_code transaction_type smallint not null,
+    modify account_id bigint not null;
+
+-- Keyset-paginated history: where account_id = ? order by timestamp desc, id desc
+create index idx_transaction_account_history on transaction (account_id, timestamp desc, id desc);
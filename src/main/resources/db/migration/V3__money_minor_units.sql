@@ -0,0 +1,11 @@
+-- Balances and amounts become BIGINT minor units (cents) instead of DOUBLE
+
+alter table accounts add column balance_minor bigint;
+update accounts set balance_minor = round(balance * 100);
+alter table accounts drop column balance;
+alter table accounts change column balance_minor balance bigint not null;
+
+alter table transaction add column amount_minor bigint;
+update transaction set amount_minor = round(amount * 100);
+alter table transaction drop column amount;
+alter table transaction change column amount_minor amount bigint not null;
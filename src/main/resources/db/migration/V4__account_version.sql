@@ -0,0 +1,2 @@
+-- Optimistic concurrency: incremented by every account write
+alter table accounts add column version bigint not null default 0;
@@ -0,0 +1,7 @@
+-- Cluster-wide account lock leases (banking.locks.mode=database)
+create table account_locks (
+    account_id bigint not null,
+    owner varchar(128) not null,
+    expires_at datetime(6) not null,
+    primary key (account_id)
+) engine=InnoDB;
@@ -0,0 +1,5 @@
+-- Change marker for catching a balance snapshot up with rows written after it
+alter table accounts
+    add column updated_at datetime(6) not null default current_timestamp(6) on update current_timestamp(6);
+
+create index idx_accounts_updated_at on accounts (updated_at);
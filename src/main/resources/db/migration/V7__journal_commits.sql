@@ -0,0 +1,7 @@
+-- Ids of journaled ledger rows whose balance transaction committed but which the
+-- drainer has not inserted into the transaction table yet (banking.journal.enabled).
+-- Startup recovery replays only journal entries listed here.
+create table journal_commits (
+    id bigint not null,
+    primary key (id)
+) engine=InnoDB;
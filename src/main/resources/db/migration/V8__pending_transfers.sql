@@ -0,0 +1,10 @@
+-- Cross-shard transfers whose debit committed but whose credit or refund has not yet
+-- (banking.engine=sharded); open rows are finished on the next start
+create table pending_transfers (
+    id bigint not null auto_increment,
+    from_account_id bigint not null,
+    to_account_id bigint not null,
+    amount bigint not null,
+    created_at datetime(6) not null default current_timestamp(6),
+    primary key (id)
+) engine=InnoDB;
@@ -0,0 +1,141 @@
+package com.riksonpereira.banking.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>("account", meterRegistry);
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    // Loads of any key block until released
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger loaderRuns = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        int callerCount = 8;
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < callerCount; i++) {
+            results.add(callers.submit(() -> singleFlight.load(1L, this::blockingLoad)));
+        }
+        awaitJoined(callerCount - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("account 1 #1");
+        }
+        assertThat(loaderRuns).hasValue(1);
+        assertThat(counter("banking.reads.loads")).isEqualTo(1);
+        assertThat(counter("banking.reads.deduplicated")).isEqualTo(callerCount - 1);
+    }
+
+    @Test
+    void joinedCallersSeeTheLoadersException() throws Exception {
+        Future<String> first = callers.submit(() -> singleFlight.load(1L, (id) -> {
+            await(release);
+            throw new IllegalStateException("Database down");
+        }));
+        awaitLoads(1);
+        Future<String> joined = callers.submit(() -> singleFlight.load(1L, this::blockingLoad));
+        awaitJoined(1);
+        release.countDown();
+
+        for (Future<String> result : List.of(first, joined)) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause()
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Database down");
+        }
+        assertThat(loaderRuns).hasValue(0);
+    }
+
+    @Test
+    void nothingIsKeptOnceTheLoadFinishes() {
+        release.countDown();
+
+        assertThat(singleFlight.load(1L, this::blockingLoad)).isEqualTo("account 1 #1");
+        assertThat(singleFlight.load(1L, this::blockingLoad)).isEqualTo("account 1 #2");
+        assertThat(counter("banking.reads.loads")).isEqualTo(2);
+        assertThat(counter("banking.reads.deduplicated")).isZero();
+    }
+
+    @Test
+    void forgottenKeysStartANewLoadWhileTheOldOneIsInFlight() throws Exception {
+        Future<String> stale = callers.submit(() -> singleFlight.load(1L, this::blockingLoad));
+        Future<String> other = callers.submit(() -> singleFlight.load(2L, this::blockingLoad));
+        awaitLoads(2);
+
+        singleFlight.forget((id) -> id == 1L);
+
+        Future<String> fresh = callers.submit(() -> singleFlight.load(1L, this::blockingLoad));
+        awaitLoads(3);
+        // Key 2 was not forgotten, so a new caller still joins its load
+        Future<String> joined = callers.submit(() -> singleFlight.load(2L, this::blockingLoad));
+        awaitJoined(1);
+        release.countDown();
+
+        assertThat(fresh.get(5, TimeUnit.SECONDS)).isNotEqualTo(stale.get(5, TimeUnit.SECONDS));
+        assertThat(joined.get(5, TimeUnit.SECONDS)).isEqualTo(other.get(5, TimeUnit.SECONDS));
+        assertThat(loaderRuns).hasValue(3);
+    }
+
+    private String blockingLoad(Long id) {
+        int run = loaderRuns.incrementAndGet();
+        await(release);
+        return "account " + id + " #" + run;
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).tag("read", "account").counter().count();
+    }
+
+    private void awaitLoads(int loads) throws InterruptedException {
+        awaitCount("banking.reads.loads", loads);
+    }
+
+    private void awaitJoined(int joined) throws InterruptedException {
+        awaitCount("banking.reads.deduplicated", joined);
+    }
+
+    private void awaitCount(String name, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter(name) < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
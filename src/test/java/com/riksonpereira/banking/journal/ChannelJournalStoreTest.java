@@ -0,0 +1,91 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelJournalStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 0);
+
+    private final JournalEntry first = new JournalEntry(1, 10L, null, 500, TransactionType.DEPOSIT, NOW);
+
+    private final JournalEntry second = new JournalEntry(2, 10L, 20L, 100, TransactionType.TRANSFER, NOW);
+
+    private final JournalEntry third = new JournalEntry(3, 20L, null, 50, TransactionType.WITHDRAW, NOW);
+
+    @TempDir
+    Path root;
+
+    private Path journal;
+
+    private Path archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = Files.createDirectory(root.resolve("journal"));
+        archive = Files.createDirectory(root.resolve("archive"));
+    }
+
+    @Test
+    void recoversAppendedEntriesExceptCancelledOnes() throws Exception {
+        ChannelJournalStore store = new ChannelJournalStore(journal, null, 1 << 20, 0);
+        store.append(JournalFormat.ENTRY, first);
+        long cancelled = store.append(JournalFormat.ENTRY, second);
+        store.append(JournalFormat.CANCEL, second);
+        store.resolve(cancelled);
+        store.append(JournalFormat.ENTRY, third);
+        store.close();
+
+        assertThat(JournalFormat.recover(JournalFormat.segments(journal))).containsExactly(first, third);
+    }
+
+    @Test
+    void tornRecordAfterACrashIsIgnored() throws Exception {
+        ChannelJournalStore store = new ChannelJournalStore(journal, null, 1 << 20, 0);
+        store.append(JournalFormat.ENTRY, first);
+        store.append(JournalFormat.ENTRY, second);
+        store.close();
+
+        // A record cut short by the crash, after everything acknowledged
+        byte[] partial = new byte[JournalFormat.RECORD_SIZE - 1];
+        System.arraycopy(JournalFormatTest.record(JournalFormat.ENTRY, third), 0, partial, 0, partial.length);
+        Files.write(JournalFormat.segmentPath(journal, 0), partial, StandardOpenOption.APPEND);
+
+        assertThat(JournalFormat.recover(JournalFormat.segments(journal))).containsExactly(first, second);
+    }
+
+    @Test
+    void rollsOverFullSegmentsAndArchivesThemOnceResolved() throws Exception {
+        ChannelJournalStore store = new ChannelJournalStore(journal, archive, 2L * JournalFormat.RECORD_SIZE, 0);
+        long firstSeq = store.append(JournalFormat.ENTRY, first);
+        long secondSeq = store.append(JournalFormat.ENTRY, second);
+        store.append(JournalFormat.ENTRY, third);
+
+        assertThat(JournalFormat.segments(journal)).hasSize(2);
+
+        store.resolve(firstSeq);
+        assertThat(JournalFormat.segments(archive)).isEmpty();
+
+        // The closed segment is retired once nothing in it is unresolved
+        store.resolve(secondSeq);
+        assertThat(JournalFormat.segments(journal)).containsExactly(JournalFormat.segmentPath(journal, 1));
+        assertThat(JournalFormat.segments(archive)).containsExactly(JournalFormat.segmentPath(archive, 0));
+        store.close();
+
+        List<Path> segments = new ArrayList<>(JournalFormat.segments(archive));
+        segments.addAll(JournalFormat.segments(journal));
+        assertThat(JournalFormat.recover(segments)).containsExactly(first, second, third);
+    }
+}
@@ -0,0 +1,112 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalFormatTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 30, 45, 123_456_000);
+
+    private final JournalEntry deposit = new JournalEntry(1, 10L, null, 500, TransactionType.DEPOSIT, NOW);
+
+    private final JournalEntry withdraw = new JournalEntry(2, 10L, null, 200, TransactionType.WITHDRAW, NOW);
+
+    private final JournalEntry transfer = new JournalEntry(3, 10L, 20L, 100, TransactionType.TRANSFER, NOW.plusNanos(1_000));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversEveryFieldOfEntriesThatWereNotCancelled() throws IOException {
+        Path segment = write(0, record(JournalFormat.ENTRY, deposit),
+                record(JournalFormat.ENTRY, withdraw),
+                record(JournalFormat.ENTRY, transfer),
+                record(JournalFormat.CANCEL, withdraw));
+
+        assertThat(JournalFormat.recover(List.of(segment))).containsExactly(deposit, transfer);
+    }
+
+    @Test
+    void timestampsBeforeTheEpochSurvive() throws IOException {
+        JournalEntry old = new JournalEntry(4, 10L, null, 1, TransactionType.DEPOSIT,
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+
+        assertThat(JournalFormat.recover(List.of(write(0, record(JournalFormat.ENTRY, old))))).containsExactly(old);
+    }
+
+    @Test
+    void tornTailEndsRecovery() throws IOException {
+        byte[] torn = Arrays.copyOf(record(JournalFormat.ENTRY, transfer), JournalFormat.RECORD_SIZE / 2);
+        Path segment = write(0, record(JournalFormat.ENTRY, deposit), record(JournalFormat.ENTRY, withdraw), torn);
+
+        assertThat(JournalFormat.recover(List.of(segment))).containsExactly(deposit, withdraw);
+    }
+
+    @Test
+    void recordFailingItsCrcEndsRecoveryOfItsSegment() throws IOException {
+        byte[] corrupt = record(JournalFormat.ENTRY, withdraw);
+        corrupt[20] ^= 1;
+        Path first = write(0, record(JournalFormat.ENTRY, deposit), corrupt, record(JournalFormat.ENTRY, transfer));
+        JournalEntry later = new JournalEntry(5, 30L, null, 7, TransactionType.DEPOSIT, NOW);
+        Path second = write(1, record(JournalFormat.ENTRY, later));
+
+        // The valid record behind the corrupt one is not trusted; the next segment still is
+        assertThat(JournalFormat.recover(List.of(first, second))).containsExactly(deposit, later);
+    }
+
+    @Test
+    void zeroFilledTailEndsRecovery() throws IOException {
+        Path segment = write(0, record(JournalFormat.ENTRY, deposit), new byte[JournalFormat.RECORD_SIZE * 3]);
+
+        assertThat(JournalFormat.recover(List.of(segment))).containsExactly(deposit);
+    }
+
+    @Test
+    void cancelInALaterSegmentRemovesTheEntry() throws IOException {
+        Path first = write(0, record(JournalFormat.ENTRY, deposit), record(JournalFormat.ENTRY, withdraw));
+        Path second = write(1, record(JournalFormat.CANCEL, deposit));
+
+        assertThat(JournalFormat.recover(List.of(first, second))).containsExactly(withdraw);
+    }
+
+    @Test
+    void segmentsAreListedInIndexOrder() throws IOException {
+        write(2);
+        write(0);
+        Files.createFile(directory.resolve("ledger-1.journal"));
+        Files.createFile(directory.resolve("notes.txt"));
+
+        List<Path> segments = JournalFormat.segments(directory);
+
+        assertThat(segments).containsExactly(JournalFormat.segmentPath(directory, 0), JournalFormat.segmentPath(directory, 2));
+        assertThat(segments).extracting(JournalFormat::segmentIndex).containsExactly(0, 2);
+    }
+
+    static byte[] record(byte kind, JournalEntry entry) {
+        ByteBuffer buffer = ByteBuffer.allocate(JournalFormat.RECORD_SIZE);
+        JournalFormat.encode(buffer, kind, entry);
+        return buffer.array();
+    }
+
+    private Path write(int index, byte[]... records) throws IOException {
+        Path segment = JournalFormat.segmentPath(directory, index);
+        try (OutputStream out = Files.newOutputStream(segment)) {
+            for (byte[] record : records) {
+                out.write(record);
+            }
+        }
+        return segment;
+    }
+}
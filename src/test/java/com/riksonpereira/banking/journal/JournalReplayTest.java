@@ -0,0 +1,33 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class JournalReplayTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 0);
+
+    @Test
+    void sumsTheNetChangeOfEveryAccount() {
+        List<JournalEntry> entries = List.of(
+                new JournalEntry(1, 10L, null, 500, TransactionType.DEPOSIT, NOW),
+                new JournalEntry(2, 10L, null, 200, TransactionType.WITHDRAW, NOW),
+                new JournalEntry(3, 10L, 20L, 100, TransactionType.TRANSFER, NOW),
+                new JournalEntry(4, 20L, null, 50, TransactionType.DEPOSIT, NOW),
+                new JournalEntry(5, 30L, 10L, 75, TransactionType.TRANSFER, NOW));
+
+        assertThat(JournalReplay.replay(entries))
+                .containsExactly(entry(10L, 275L), entry(20L, 150L), entry(30L, -75L));
+    }
+
+    @Test
+    void emptyJournalChangesNothing() {
+        assertThat(JournalReplay.replay(List.of())).isEmpty();
+    }
+}
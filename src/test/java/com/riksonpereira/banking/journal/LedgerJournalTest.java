@@ -0,0 +1,183 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.entity.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerJournalTest {
+
+    private static final Long ACCOUNT_ID = 10L;
+
+    // Ids whose journal_commits mark is visible, i.e. whose balance transaction committed
+    private final Set<Long> marks = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final List<LedgerJournal> running = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(startsWith("select count(*) from journal_commits"), eq(Integer.class),
+                any(Object[].class)))
+                .thenAnswer((invocation) -> marks.contains(invocation.<Long>getArgument(2)) ? 1 : 0);
+        when(jdbcTemplate.queryForList(startsWith("select id from journal_commits"), eq(Long.class), any(Object[].class)))
+                .thenAnswer((invocation) -> Arrays.stream(invocation.getArguments())
+                        .skip(2)
+                        .map(Long.class::cast)
+                        .filter(marks::contains)
+                        .toList());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (LedgerJournal journal : running) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void rolledBackEntryIsCancelled() throws Exception {
+        LedgerJournal journal = start();
+
+        long id = record(journal, TransactionSynchronization.STATUS_ROLLED_BACK);
+        stop(journal);
+
+        assertThat(journal.pendingFor(ACCOUNT_ID)).isEmpty();
+        assertThat(JournalFormat.recover(JournalFormat.segments(directory)))
+                .extracting(JournalEntry::id)
+                .doesNotContain(id);
+    }
+
+    @Test
+    void unknownOutcomeWithAMarkIsDrainedAsCommitted() throws Exception {
+        LedgerJournal journal = start();
+        marks.add(ids.get() + 1);
+
+        long id = record(journal, TransactionSynchronization.STATUS_UNKNOWN);
+
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(startsWith("insert ignore into transaction"),
+                argThat((Collection<JournalEntry> entries) -> containsId(entries, id)), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void unknownOutcomeWithoutAMarkIsLeftForTheNextStart() throws Exception {
+        LedgerJournal journal = start();
+
+        long id = record(journal, TransactionSynchronization.STATUS_UNKNOWN);
+        stop(journal);
+
+        // Neither drained nor cancelled
+        assertThat(journal.pendingFor(ACCOUNT_ID)).isEmpty();
+        assertThat(JournalFormat.recover(JournalFormat.segments(directory)))
+                .extracting(JournalEntry::id)
+                .containsExactly(id);
+
+        // The commit had gone through after all: recovery finds the mark and inserts the row
+        marks.add(id);
+        start();
+
+        verify(jdbcTemplate).batchUpdate(startsWith("insert ignore into transaction"),
+                argThat((Collection<JournalEntry> entries) -> containsId(entries, id)), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void interruptedCommitterStillQueuesItsEntry() throws Exception {
+        LedgerJournal journal = start();
+
+        long id;
+        try {
+            id = record(journal, TransactionSynchronization.STATUS_COMMITTED, () -> Thread.currentThread().interrupt());
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(startsWith("insert ignore into transaction"),
+                argThat((Collection<JournalEntry> entries) -> containsId(entries, id)), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private LedgerJournal start() throws Exception {
+        BankingProperties properties = new BankingProperties();
+        properties.getJournal().setDirectory(directory);
+        properties.getJournal().setFlushInterval(Duration.ofMillis(1));
+        TransactionIdAllocator idAllocator = mock(TransactionIdAllocator.class);
+        when(idAllocator.next()).thenAnswer((invocation) -> ids.incrementAndGet());
+
+        LedgerJournal journal = new LedgerJournal(jdbcTemplate, mock(PlatformTransactionManager.class), idAllocator,
+                properties, new SimpleMeterRegistry());
+        journal.start();
+        running.add(journal);
+        return journal;
+    }
+
+    private void stop(LedgerJournal journal) throws Exception {
+        running.remove(journal);
+        journal.stop();
+    }
+
+    // Runs one entry through the synchronization callbacks the way a transaction manager ending with status would
+    private long record(LedgerJournal journal, int status) {
+        return record(journal, status, () -> { });
+    }
+
+    private long record(LedgerJournal journal, int status, Runnable beforeCompletion) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            journal.record(ACCOUNT_ID, null, 100, TransactionType.DEPOSIT);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            for (TransactionSynchronization synchronization : synchronizations) {
+                synchronization.beforeCommit(false);
+            }
+            beforeCompletion.run();
+            for (TransactionSynchronization synchronization : synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        return ids.get();
+    }
+
+    private static boolean containsId(Collection<JournalEntry> entries, long id) {
+        return entries.stream().anyMatch((entry) -> entry.id() == id);
+    }
+}
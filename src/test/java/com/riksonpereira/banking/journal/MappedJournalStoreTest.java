@@ -0,0 +1,84 @@
+package com.riksonpereira.banking.journal;
+
+import com.riksonpereira.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedJournalStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 0);
+
+    private static final long SYNC_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final JournalEntry first = new JournalEntry(1, 10L, null, 500, TransactionType.DEPOSIT, NOW);
+
+    private final JournalEntry second = new JournalEntry(2, 10L, 20L, 100, TransactionType.TRANSFER, NOW);
+
+    private final JournalEntry third = new JournalEntry(3, 20L, null, 50, TransactionType.WITHDRAW, NOW);
+
+    @TempDir
+    Path journal;
+
+    @Test
+    void appendsAreReadableBeforeTheStoreIsClosed() throws Exception {
+        MappedJournalStore store = new MappedJournalStore(journal, null, 1 << 16, SYNC_INTERVAL_NANOS, 0);
+        try {
+            store.append(JournalFormat.ENTRY, first);
+            long cancelled = store.append(JournalFormat.ENTRY, second);
+            store.append(JournalFormat.CANCEL, second);
+            store.resolve(cancelled);
+
+            // What a crashed process leaves behind: the preallocated segment with a zero-filled tail
+            assertThat(Files.size(JournalFormat.segmentPath(journal, 0))).isGreaterThan(3L * JournalFormat.RECORD_SIZE);
+            assertThat(JournalFormat.recover(JournalFormat.segments(journal))).containsExactly(first);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void rollsOverToANewSegmentWhenFull() throws Exception {
+        // Room for two whole records; the remainder is not used
+        MappedJournalStore store = new MappedJournalStore(journal, null, 2L * JournalFormat.RECORD_SIZE + 5,
+                SYNC_INTERVAL_NANOS, 0);
+        store.append(JournalFormat.ENTRY, first);
+        store.append(JournalFormat.ENTRY, second);
+        store.append(JournalFormat.ENTRY, third);
+        store.close();
+
+        assertThat(JournalFormat.segments(journal)).hasSize(2);
+        assertThat(Files.size(JournalFormat.segmentPath(journal, 0))).isEqualTo(2L * JournalFormat.RECORD_SIZE);
+        assertThat(JournalFormat.recover(JournalFormat.segments(journal))).containsExactly(first, second, third);
+    }
+
+    @Test
+    void corruptRecordCutsOffTheRestOfItsSegment() throws Exception {
+        MappedJournalStore store = new MappedJournalStore(journal, null, 1 << 16, SYNC_INTERVAL_NANOS, 0);
+        store.append(JournalFormat.ENTRY, first);
+        store.append(JournalFormat.ENTRY, second);
+        store.append(JournalFormat.ENTRY, third);
+        store.close();
+
+        // Flip one byte of the amount of the second record
+        try (FileChannel channel = FileChannel.open(JournalFormat.segmentPath(journal, 0),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = JournalFormat.RECORD_SIZE + 1 + 8 + 8 + 8;
+            ByteBuffer amount = ByteBuffer.allocate(1);
+            channel.read(amount, position);
+            amount.put(0, (byte) (amount.get(0) ^ 1)).rewind();
+            channel.write(amount, position);
+        }
+
+        assertThat(JournalFormat.recover(JournalFormat.segments(journal))).containsExactly(first);
+    }
+}
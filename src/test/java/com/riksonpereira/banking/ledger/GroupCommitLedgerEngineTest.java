@@ -0,0 +1,209 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GroupCommitLedgerEngineTest {
+
+    // Balances behind the mocked JDBC templates, by account id
+    private final Map<Long, Long> balances = new ConcurrentHashMap<>();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private TransactionRecorder transactionRecorder;
+
+    private GroupCommitLedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        balances.put(1L, 100L);
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(this::applyBatch);
+
+        namedJdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        doAnswer(this::selectAccounts)
+                .when(namedJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+
+        transactionRecorder = mock(TransactionRecorder.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.stop();
+        }
+        callers.shutdownNow();
+    }
+
+    @Test
+    void eachCallerSeesTheBalanceAfterItsOwnOperation() throws Exception {
+        engine = newEngine(Duration.ofSeconds(5));
+
+        // Queued before the committer starts, so all four land in one batch
+        Future<AccountDto> first = queue(() -> engine.deposit(1L, 10), 1);
+        Future<AccountDto> overdraft = queue(() -> engine.withdraw(1L, 500), 2);
+        Future<AccountDto> second = queue(() -> engine.deposit(1L, 20), 3);
+        Future<AccountDto> unknown = queue(() -> engine.withdraw(99L, 5), 4);
+        engine.start();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getBalance()).isEqualTo(110);
+        assertThat(second.get(5, TimeUnit.SECONDS).getBalance()).isEqualTo(130);
+        assertThatThrownBy(() -> overdraft.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> unknown.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(AccountNotFoundException.class);
+
+        assertThat(balances.get(1L)).isEqualTo(130);
+        verify(transactionRecorder).recordAll(argThat((List<LedgerEntry> rows) -> rows.size() == 2));
+    }
+
+    @Test
+    void submitsAfterShutdownAreRejected() throws InterruptedException {
+        engine = newEngine(Duration.ofSeconds(5));
+        engine.start();
+        engine.stop();
+
+        assertThatThrownBy(() -> engine.deposit(1L, 10))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(balances.get(1L)).isEqualTo(100);
+    }
+
+    @Test
+    void operationNoCommitterTookIsWithdrawnOnTimeout() throws InterruptedException {
+        engine = newEngine(Duration.ofMillis(100));
+
+        assertThatThrownBy(() -> engine.deposit(1L, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Timed out");
+
+        // The committer still finds it in the queue, but must skip it
+        engine.start();
+        engine.stop();
+        engine = null;
+
+        assertThat(balances.get(1L)).isEqualTo(100);
+        verify(jdbcTemplate, never())
+                .batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private GroupCommitLedgerEngine newEngine(Duration submitTimeout) {
+        BankingProperties properties = new BankingProperties();
+        properties.getGroupCommit().setCommitters(1);
+        properties.getGroupCommit().setSubmitTimeout(submitTimeout);
+        return new GroupCommitLedgerEngine(mock(AtomicUpdateLedgerEngine.class),
+                jdbcTemplate,
+                namedJdbcTemplate,
+                transactionRecorder,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                properties,
+                meterRegistry);
+    }
+
+    // Submits from another thread and waits until the operation is queued
+    private Future<AccountDto> queue(Callable<AccountDto> operation, int queued) throws InterruptedException {
+        Future<AccountDto> result = callers.submit(operation);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("banking.group-commit.queued").gauge().value() < queued) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    // update accounts set balance = balance + ?1 ... where id = ?2 and (?3 = 0 or balance >= ?4)
+    private int[][] applyBatch(InvocationOnMock invocation) throws Throwable {
+        Collection<Object> operations = invocation.getArgument(1);
+        ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+
+        long[] parameters = new long[5];
+        PreparedStatement statement = mock(PreparedStatement.class);
+        doAnswer((set) -> parameters[set.<Integer>getArgument(0)] = set.<Long>getArgument(1))
+                .when(statement).setLong(anyInt(), anyLong());
+        doAnswer((set) -> parameters[set.<Integer>getArgument(0)] = set.<Integer>getArgument(1))
+                .when(statement).setInt(anyInt(), anyInt());
+
+        int[] updated = new int[operations.size()];
+        int i = 0;
+        for (Object operation : operations) {
+            setter.setValues(statement, operation);
+            Long balance = balances.get(parameters[2]);
+            if (balance != null && (parameters[3] == 0 || balance >= parameters[4])) {
+                balances.put(parameters[2], balance + parameters[1]);
+                updated[i] = 1;
+            }
+            i++;
+        }
+        return new int[][]{updated};
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object selectAccounts(InvocationOnMock invocation) throws Throwable {
+        MapSqlParameterSource parameters = invocation.getArgument(1);
+        RowCallbackHandler handler = invocation.getArgument(2);
+        for (Long id : (Collection<Long>) parameters.getValue("ids")) {
+            Long balance = balances.get(id);
+            if (balance == null) {
+                continue;
+            }
+            ResultSet row = mock(ResultSet.class);
+            when(row.getLong("id")).thenReturn(id);
+            when(row.getString("account_holder_name")).thenReturn("Ann");
+            when(row.getLong("balance")).thenReturn(balance);
+            handler.processRow(row);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryLedgerEngineTest {
+
+    // Rows behind the mocked repository, by account id
+    private final Map<Long, Account> rows = new ConcurrentHashMap<>();
+
+    // When set, the next load of an account runs a delete of it between its read and caching the result
+    private final AtomicBoolean deleteDuringLoad = new AtomicBoolean();
+
+    private AccountRepository accountRepository;
+
+    private TransactionRecorder transactionRecorder;
+
+    private InMemoryLedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        rows.put(1L, new Account(1L, "Ann", 100, 0L));
+        rows.put(2L, new Account(2L, "Bob", 50, 0L));
+
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findById(anyLong())).thenAnswer((invocation) -> {
+            Long id = invocation.getArgument(0);
+            Optional<Account> row = Optional.ofNullable(rows.get(id));
+            if (deleteDuringLoad.getAndSet(false)) {
+                engine.delete(id);
+            }
+            return row;
+        });
+        doAnswer((invocation) -> rows.remove(invocation.<Long>getArgument(0)))
+                .when(accountRepository).deleteById(anyLong());
+
+        transactionRecorder = mock(TransactionRecorder.class);
+
+        BankingProperties properties = new BankingProperties();
+        properties.getInMemory().setFlushInterval(Duration.ofMillis(1));
+        engine = new InMemoryLedgerEngine(accountRepository, transactionRecorder,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties);
+    }
+
+    @Test
+    void deletedAccountRejectsCallersStillHoldingIt() {
+        assertThat(engine.deposit(2L, 10).getBalance()).isEqualTo(60);
+
+        engine.delete(2L);
+
+        assertThatThrownBy(() -> engine.deposit(2L, 10)).isInstanceOf(AccountNotFoundException.class);
+        assertThatThrownBy(() -> engine.withdraw(2L, 10)).isInstanceOf(AccountNotFoundException.class);
+        assertThatThrownBy(() -> engine.transfer(1L, 2L, 10)).isInstanceOf(AccountNotFoundException.class);
+        assertThat(engine.deposit(1L, 5).getBalance()).isEqualTo(105);
+    }
+
+    @Test
+    void loadRacingADeleteDoesNotBringTheAccountBack() {
+        deleteDuringLoad.set(true);
+
+        // Reads the row, then the delete tombstones the id before the load is cached
+        assertThatThrownBy(() -> engine.deposit(2L, 10)).isInstanceOf(AccountNotFoundException.class);
+
+        assertThat(rows).doesNotContainKey(2L);
+        assertThatThrownBy(() -> engine.deposit(2L, 10)).isInstanceOf(AccountNotFoundException.class);
+    }
+
+    @Test
+    void writerSkipsEntriesOfDeletedAccounts() throws InterruptedException {
+        engine.deposit(1L, 20);
+        engine.deposit(2L, 10);
+        engine.delete(2L);
+
+        engine.start();
+        engine.stop();
+
+        verify(transactionRecorder).recordAll(argThat((List<LedgerEntry> entries) ->
+                entries.size() == 1 && entries.get(0).accountId().equals(1L)));
+        verify(accountRepository).updateBalance(1L, 120);
+        verify(accountRepository, never()).updateBalance(eq(2L), anyLong());
+    }
+}
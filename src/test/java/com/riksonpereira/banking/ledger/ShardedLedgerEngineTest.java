@@ -0,0 +1,192 @@
+package com.riksonpereira.banking.ledger;
+
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.exception.AccountNotFoundException;
+import com.riksonpereira.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShardedLedgerEngineTest {
+
+    private static final int SHARDS = 4;
+
+    private static final Long FROM_ID = 1L;
+
+    private final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    private final InMemoryPendingTransfers pendingTransfers = new InMemoryPendingTransfers();
+
+    private final List<ShardedLedgerEngine> engines = new ArrayList<>();
+
+    private volatile boolean databaseDown;
+
+    private Long toId;
+
+    private AccountRepository accountRepository;
+
+    private TransactionRecorder transactionRecorder;
+
+    @BeforeEach
+    void setUp() {
+        toId = FROM_ID + 1;
+        while (ShardedLedgerEngine.shardIndex(toId, SHARDS) == ShardedLedgerEngine.shardIndex(FROM_ID, SHARDS)) {
+            toId++;
+        }
+        accounts.put(FROM_ID, new Account(FROM_ID, "Ann", 100, 0L));
+        accounts.put(toId, new Account(toId, "Bob", 50, 0L));
+
+        accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findById(anyLong())).thenAnswer((invocation) -> {
+            if (databaseDown) {
+                throw new IllegalStateException("Database down");
+            }
+            return Optional.ofNullable(accounts.get(invocation.<Long>getArgument(0)));
+        });
+        when(accountRepository.existsById(anyLong()))
+                .thenAnswer((invocation) -> accounts.containsKey(invocation.<Long>getArgument(0)));
+        when(accountRepository.save(any(Account.class))).thenAnswer((invocation) -> invocation.getArgument(0));
+
+        transactionRecorder = mock(TransactionRecorder.class);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (ShardedLedgerEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void crossShardTransferMovesMoneyAndClosesTheIntent() {
+        ShardedLedgerEngine engine = start(new SimpleMeterRegistry());
+
+        engine.transfer(FROM_ID, toId, 30);
+
+        assertThat(accounts.get(FROM_ID).getBalance()).isEqualTo(70);
+        assertThat(accounts.get(toId).getBalance()).isEqualTo(80);
+        assertThat(pendingTransfers.rows).isEmpty();
+        verify(transactionRecorder).recordTransfer(FROM_ID, toId, 30);
+    }
+
+    @Test
+    void failedCreditRefundsTheSource() {
+        ShardedLedgerEngine engine = start(new SimpleMeterRegistry());
+        // The destination is deleted between the debit and the credit
+        pendingTransfers.afterOpen = () -> accounts.remove(toId);
+
+        assertThatThrownBy(() -> engine.transfer(FROM_ID, toId, 30))
+                .isInstanceOf(AccountNotFoundException.class);
+
+        assertThat(accounts.get(FROM_ID).getBalance()).isEqualTo(100);
+        assertThat(pendingTransfers.rows).isEmpty();
+        verify(transactionRecorder, never()).recordTransfer(any(), any(), anyLong());
+    }
+
+    @Test
+    void failedRefundLeavesTheIntentForTheNextStart() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ShardedLedgerEngine engine = start(meterRegistry);
+        // The database becomes unreachable right after the debit commits
+        pendingTransfers.afterOpen = () -> databaseDown = true;
+
+        assertThatThrownBy(() -> engine.transfer(FROM_ID, toId, 30))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(accounts.get(FROM_ID).getBalance()).isEqualTo(70);
+        assertThat(accounts.get(toId).getBalance()).isEqualTo(50);
+        assertThat(pendingTransfers.rows).hasSize(1);
+        assertThat(meterRegistry.get("banking.shards.refund.failures").counter().count()).isEqualTo(1);
+
+        // Restart with the database back: recovery finishes the transfer
+        engine.stop();
+        engines.remove(engine);
+        databaseDown = false;
+        pendingTransfers.afterOpen = () -> { };
+        start(new SimpleMeterRegistry());
+
+        assertThat(accounts.get(FROM_ID).getBalance()).isEqualTo(70);
+        assertThat(accounts.get(toId).getBalance()).isEqualTo(80);
+        assertThat(pendingTransfers.rows).isEmpty();
+        verify(transactionRecorder, times(1)).recordTransfer(FROM_ID, toId, 30);
+    }
+
+    @Test
+    void recoveryRefundsWhenTheDestinationIsGone() {
+        accounts.get(FROM_ID).setBalance(70);
+        pendingTransfers.open(FROM_ID, toId, 30);
+        accounts.remove(toId);
+
+        start(new SimpleMeterRegistry());
+
+        assertThat(accounts.get(FROM_ID).getBalance()).isEqualTo(100);
+        assertThat(pendingTransfers.rows).isEmpty();
+    }
+
+    private ShardedLedgerEngine start(SimpleMeterRegistry meterRegistry) {
+        BankingProperties properties = new BankingProperties();
+        properties.getSharded().setShards(SHARDS);
+        // TransactionTemplate treats the mock's null status as a transaction it commits or rolls back
+        ShardedLedgerEngine engine = new ShardedLedgerEngine(accountRepository, transactionRecorder, pendingTransfers,
+                mock(PlatformTransactionManager.class), properties, meterRegistry);
+        engines.add(engine);
+        engine.start();
+        return engine;
+    }
+
+    // Stands in for pending_transfers; the tests never roll back, so no transactional behaviour is needed
+    private static class InMemoryPendingTransfers extends PendingTransfers {
+
+        private final Map<Long, Transfer> rows = new ConcurrentHashMap<>();
+
+        private final AtomicLong ids = new AtomicLong();
+
+        private volatile Runnable afterOpen = () -> { };
+
+        InMemoryPendingTransfers() {
+            super(null);
+        }
+
+        @Override
+        Transfer open(Long fromAccountId, Long toAccountId, long amount) {
+            Transfer transfer = new Transfer(ids.incrementAndGet(), fromAccountId, toAccountId, amount);
+            rows.put(transfer.id(), transfer);
+            afterOpen.run();
+            return transfer;
+        }
+
+        @Override
+        void close(Transfer transfer) {
+            if (rows.remove(transfer.id()) == null) {
+                throw new IllegalStateException("Pending transfer " + transfer.id() + " is already closed");
+            }
+        }
+
+        @Override
+        List<Transfer> findAll() {
+            return rows.values().stream()
+                    .sorted((a, b) -> Long.compare(a.id(), b.id()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.riksonpereira.banking.money;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.riksonpereira.banking.dto.AccountOperation;
+import com.riksonpereira.banking.dto.AmountRequest;
+import com.riksonpereira.banking.dto.TransferFundDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AmountJsonDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsNumbersAndNumericStrings() throws Exception {
+        assertThat(objectMapper.readValue("{\"amount\": 12.5}", AmountRequest.class).amount()).isEqualTo(1250);
+        assertThat(objectMapper.readValue("{\"amount\": \"0.07\"}", AmountRequest.class).amount()).isEqualTo(7);
+        assertThat(objectMapper.readValue("{\"amount\": 0}", AmountRequest.class).amount()).isZero();
+    }
+
+    @Test
+    void rejectsNegativeAmounts() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\": -1}", AmountRequest.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("must not be negative");
+        assertThatThrownBy(() -> objectMapper.readValue(
+                "{\"fromAccountId\": 1, \"toAccountId\": 2, \"amount\": \"-0.01\"}", TransferFundDto.class))
+                .isInstanceOf(JsonMappingException.class);
+        assertThatThrownBy(() -> objectMapper.readValue(
+                "{\"type\": \"WITHDRAW\", \"accountId\": 1, \"amount\": -5}", AccountOperation.class))
+                .isInstanceOf(JsonMappingException.class);
+    }
+
+    @Test
+    void balancesMayStillBeNegative() throws Exception {
+        assertThat(objectMapper.readValue("{\"balance\": -5}", Balance.class).balance()).isEqualTo(-500);
+    }
+
+    record Balance(@JsonDeserialize(using = MoneyJsonDeserializer.class) long balance) {
+    }
+}
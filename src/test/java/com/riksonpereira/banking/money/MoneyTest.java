@@ -0,0 +1,93 @@
+package com.riksonpereira.banking.money;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "12, 1200",
+            "12.5, 1250",
+            "12.50, 1250",
+            "0.07, 7",
+            "-3.5, -350",
+            "+1, 100",
+            ".5, 50",
+            "5., 500",
+            "-0, 0",
+            // Zeros past the scale carry no value
+            "1.2300, 123",
+            "92233720368547758.07, 9223372036854775807"
+    })
+    void parsesPlainDecimals(String text, long minorUnits) {
+        assertThat(Money.parse(text)).isEqualTo(minorUnits);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "-", "+", ".", "-.", "1e3", "1.2.3", "12a", " 1", "1,5", "0x10"})
+    void rejectsMalformedText(String text) {
+        assertThatThrownBy(() -> Money.parse(text))
+                .isInstanceOf(NumberFormatException.class)
+                .hasMessageContaining("Invalid amount");
+    }
+
+    @Test
+    void rejectsMoreDecimalPlacesThanTheScale() {
+        assertThatThrownBy(() -> Money.parse("1.234"))
+                .isInstanceOf(NumberFormatException.class)
+                .hasMessageContaining("decimal places");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"92233720368547758.08", "-92233720368547758.09", "100000000000000000000"})
+    void rejectsAmountsOutsideLongRange(String text) {
+        assertThatThrownBy(() -> Money.parse(text))
+                .isInstanceOf(NumberFormatException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void parsesASliceOfACharArray() {
+        char[] chars = "x12.5y".toCharArray();
+
+        assertThat(Money.parse(chars, 1, 4)).isEqualTo(1250);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 0.00",
+            "5, 0.05",
+            "-5, -0.05",
+            "100, 1.00",
+            "123456, 1234.56",
+            "-123456, -1234.56",
+            "9223372036854775807, 92233720368547758.07",
+            "-9223372036854775808, -92233720368547758.08"
+    })
+    void formatsWithTwoDecimalPlaces(long minorUnits, String text) {
+        assertThat(Money.toString(minorUnits)).isEqualTo(text);
+    }
+
+    @Test
+    void longestValueFitsTheFormatBuffer() {
+        assertThat(Money.toString(Long.MIN_VALUE)).hasSize(Money.MAX_FORMATTED_LENGTH);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 1, -1, 99, 100, 1_000_001, Long.MAX_VALUE})
+    void formattedValuesParseBack(long minorUnits) {
+        assertThat(Money.parse(Money.toString(minorUnits))).isEqualTo(minorUnits);
+    }
+
+    @Test
+    void arithmeticRejectsOverflow() {
+        assertThatThrownBy(() -> Money.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.subtract(Long.MIN_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.riksonpereira.banking.service.impl;
+
+import com.riksonpereira.banking.cache.AccountCache;
+import com.riksonpereira.banking.config.BankingProperties;
+import com.riksonpereira.banking.dto.AccountDto;
+import com.riksonpereira.banking.entity.Account;
+import com.riksonpereira.banking.journal.LedgerJournal;
+import com.riksonpereira.banking.ledger.LedgerEngine;
+import com.riksonpereira.banking.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountServiceImplCacheTest {
+
+    private static final long ACCOUNT_ID = 1L;
+
+    private final AtomicLong balance = new AtomicLong(100);
+
+    // Deposits of this amount block after they are applied until released
+    private volatile long gatedAmount = -1;
+
+    private final CountDownLatch gateApplied = new CountDownLatch(1);
+
+    private final CountDownLatch gateReleased = new CountDownLatch(1);
+
+    private AccountServiceImpl accountService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.findById(anyLong()))
+                .thenAnswer((invocation) -> Optional.of(new Account(ACCOUNT_ID, "Ann", balance.get(), 0L)));
+
+        BankingProperties properties = new BankingProperties();
+        properties.getCache().setEnabled(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        accountService = new AccountServiceImpl(accountRepository, null, null, new GatedEngine(), null,
+                mock(ObjectProvider.class), new AccountCache(properties, meterRegistry), meterRegistry);
+    }
+
+    @Test
+    void depositReturningLateDoesNotRestoreAnOlderBalance() throws Exception {
+        gatedAmount = 10;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 100 + 10 = 110 is committed first, but its caller is held until after the next deposit
+            Future<AccountDto> slow = executor.submit(() -> accountService.deposit(ACCOUNT_ID, 10));
+            assertThat(gateApplied.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(accountService.deposit(ACCOUNT_ID, 20).getBalance()).isEqualTo(130);
+            assertThat(accountService.getAccountById(ACCOUNT_ID).getBalance()).isEqualTo(130);
+
+            gateReleased.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS).getBalance()).isEqualTo(110);
+
+            assertThat(accountService.getAccountById(ACCOUNT_ID).getBalance()).isEqualTo(130);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void readsAfterConcurrentDepositsNeverGoBackwards() throws Exception {
+        int threads = 8;
+        int depositsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < depositsPerThread; i++) {
+                        long deposited = accountService.deposit(ACCOUNT_ID, 1).getBalance();
+                        // A read that starts after the write returned sees at least its balance
+                        assertThat(accountService.getAccountById(ACCOUNT_ID).getBalance())
+                                .isGreaterThanOrEqualTo(deposited);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accountService.getAccountById(ACCOUNT_ID).getBalance())
+                .isEqualTo(100 + threads * depositsPerThread);
+    }
+
+    // Applies deposits to a single balance; the database view is the same balance
+    private class GatedEngine implements LedgerEngine {
+
+        @Override
+        public AccountDto deposit(Long accountId, long amount) {
+            long updated = balance.addAndGet(amount);
+            if (amount == gatedAmount) {
+                gateApplied.countDown();
+                try {
+                    gateReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else {
+                Thread.yield();
+            }
+            return new AccountDto(accountId, "Ann", updated);
+        }
+
+        @Override
+        public AccountDto withdraw(Long accountId, long amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void transfer(Long fromAccountId, Long toAccountId, long amount) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(Long accountId) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
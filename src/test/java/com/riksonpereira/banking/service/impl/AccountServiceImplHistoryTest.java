@@ -0,0 +1,128 @@
+package com.riksonpereira.banking.service.impl;
+
+import com.riksonpereira.banking.dto.TransactionDto;
+import com.riksonpereira.banking.dto.TransactionPage;
+import com.riksonpereira.banking.entity.Transaction;
+import com.riksonpereira.banking.entity.TransactionType;
+import com.riksonpereira.banking.journal.LedgerJournal;
+import com.riksonpereira.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccountServiceImplHistoryTest {
+
+    private static final Long ACCOUNT_ID = 1L;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 0);
+
+    @Test
+    void mergesPendingRowsNewestFirst() {
+        List<TransactionDto> page = List.of(row(5, 10), row(3, 30));
+        // Same timestamp as id 5, so the higher id sorts first
+        List<TransactionDto> pending = List.of(row(8, 10), row(7, 20), row(6, 40));
+
+        assertThat(AccountServiceImpl.mergePending(page, pending, null))
+                .extracting(TransactionDto::id)
+                .containsExactly(8L, 5L, 7L, 3L, 6L);
+    }
+
+    @Test
+    void skipsPendingRowsNotPastTheCursor() {
+        List<TransactionDto> page = List.of(row(3, 30));
+        List<TransactionDto> pending = List.of(row(9, 5), row(8, 20), row(7, 20), row(6, 40));
+        TransactionCursor cursor = new TransactionCursor(at(20), 8L);
+
+        assertThat(AccountServiceImpl.mergePending(page, pending, cursor))
+                .extracting(TransactionDto::id)
+                .containsExactly(7L, 3L, 6L);
+    }
+
+    @Test
+    void rowDrainedWhileBeingReadAppearsOnce() {
+        List<TransactionDto> page = List.of(row(4, 10), row(3, 30));
+        List<TransactionDto> pending = List.of(row(4, 10), row(2, 20));
+
+        assertThat(AccountServiceImpl.mergePending(page, pending, null))
+                .extracting(TransactionDto::id)
+                .containsExactly(4L, 2L, 3L);
+    }
+
+    @Test
+    void pagesWalkEveryRowOnceAcrossTableAndJournal() {
+        // Table and journal interleave; id 6 is in both, drained after the journal snapshot was taken
+        List<Transaction> table = new ArrayList<>(List.of(
+                entity(6, 15), entity(5, 25), entity(4, 40), entity(2, 60), entity(1, 70)));
+        List<TransactionDto> pending = List.of(row(9, 5), row(8, 15), row(6, 15), row(7, 50));
+        AccountServiceImpl accountService = newService(table, pending);
+
+        List<Long> seen = new ArrayList<>();
+        String next = null;
+        int pages = 0;
+        do {
+            TransactionPage page = accountService.getAccountTransactions(ACCOUNT_ID, next, 3);
+            page.transactions().forEach((transaction) -> seen.add(transaction.id()));
+            next = page.next();
+            pages++;
+        } while (next != null);
+
+        assertThat(seen).containsExactly(9L, 8L, 6L, 5L, 4L, 7L, 2L, 1L);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AccountServiceImpl newService(List<Transaction> table, List<TransactionDto> pending) {
+        Comparator<Transaction> newestFirst = Comparator.comparing(Transaction::getTimestamp)
+                .thenComparing(Transaction::getId)
+                .reversed();
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findLatest(eq(ACCOUNT_ID), any(Limit.class)))
+                .thenAnswer((invocation) -> table.stream()
+                        .sorted(newestFirst)
+                        .limit(invocation.<Limit>getArgument(1).max())
+                        .toList());
+        when(transactionRepository.findOlderThan(eq(ACCOUNT_ID), any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenAnswer((invocation) -> {
+                    TransactionCursor cursor = new TransactionCursor(invocation.getArgument(1), invocation.getArgument(2));
+                    return table.stream()
+                            .filter((transaction) -> cursor.isAfter(transaction.getTimestamp(), transaction.getId()))
+                            .sorted(newestFirst)
+                            .limit(invocation.<Limit>getArgument(3).max())
+                            .toList();
+                });
+
+        LedgerJournal ledgerJournal = mock(LedgerJournal.class);
+        when(ledgerJournal.pendingFor(ACCOUNT_ID)).thenReturn(pending);
+        ObjectProvider<LedgerJournal> journalProvider = mock(ObjectProvider.class);
+        when(journalProvider.getIfAvailable()).thenReturn(ledgerJournal);
+
+        return new AccountServiceImpl(null, transactionRepository, null, null, null,
+                journalProvider, null, new SimpleMeterRegistry());
+    }
+
+    // A row minutesAgo before NOW
+    private static TransactionDto row(long id, int minutesAgo) {
+        return new TransactionDto(id, ACCOUNT_ID, 100, TransactionType.DEPOSIT.name(), at(minutesAgo));
+    }
+
+    private static Transaction entity(long id, int minutesAgo) {
+        return new Transaction(id, ACCOUNT_ID, 100, TransactionType.DEPOSIT, at(minutesAgo));
+    }
+
+    private static LocalDateTime at(int minutesAgo) {
+        return NOW.minusMinutes(minutesAgo);
+    }
+}
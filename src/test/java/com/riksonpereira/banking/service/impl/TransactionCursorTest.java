@@ -0,0 +1,74 @@
+package com.riksonpereira.banking.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 15, 12, 30, 45, 123_456_789);
+
+    @Test
+    void decodesWhatItEncoded() {
+        TransactionCursor cursor = new TransactionCursor(NOW, 42L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decodesTimestampsWithoutSeconds() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2026, 10, 15, 12, 0), 7L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void tokenIsUrlSafeWithoutPadding() {
+        // Ids of every length, so some raw values are not a multiple of three bytes
+        for (long id = 1; id < 1_000_000; id *= 7) {
+            assertThat(new TransactionCursor(NOW, id).encode()).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "2026-10-15T12:00,1", ""})
+    void rejectsTokensThatAreNotBase64OfACursor(String token) {
+        assertThatThrownBy(() -> TransactionCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid page token");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2026-10-15T12:00", "yesterday,1", "2026-10-15T12:00,one", "2026-10-15T12:00,"})
+    void rejectsMalformedCursors(String raw) {
+        String token = Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TransactionCursor.decode(token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid page token");
+    }
+
+    @Test
+    void olderRowsComeAfterTheCursor() {
+        TransactionCursor cursor = new TransactionCursor(NOW, 10L);
+
+        assertThat(cursor.isAfter(NOW.minusNanos(1_000), 99L)).isTrue();
+        assertThat(cursor.isAfter(NOW.plusNanos(1_000), 1L)).isFalse();
+    }
+
+    @Test
+    void equalTimestampsAreOrderedByIdDescending() {
+        TransactionCursor cursor = new TransactionCursor(NOW, 10L);
+
+        assertThat(cursor.isAfter(NOW, 9L)).isTrue();
+        assertThat(cursor.isAfter(NOW, 10L)).isFalse();
+        assertThat(cursor.isAfter(NOW, 11L)).isFalse();
+    }
+}